@@ -0,0 +1,96 @@
+package com.siemens.internship.benchmark;
+
+import com.siemens.internship.InternshipApplication;
+import com.siemens.internship.cache.EmailRegistry;
+import com.siemens.internship.cache.ItemCache;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Starts the application without the web tier on its own in-memory H2 database (or with it, for the load test) and seeds it with items
+public final class BenchmarkContext {
+
+    private static final int SEED_BATCH_SIZE = 5_000;
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String databaseName, String... properties) {
+        List<String> allProperties = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "logging.level.root=WARN"));
+        allProperties.addAll(List.of(properties));
+
+        return new SpringApplicationBuilder(InternshipApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(toArguments(allProperties));
+    }
+
+    // The full application with its embedded server on a random port and a file-based H2 database under target/loadtest,
+    // started with the given profile (e.g. "perf") or with the defaults when the profile is "default"
+    public static ConfigurableApplicationContext startServer(String databaseName, String profile, String... properties) {
+        List<String> allProperties = new ArrayList<>(List.of(
+                "spring.profiles.active=" + profile,
+                "spring.datasource.url=jdbc:h2:file:./target/loadtest/" + databaseName,
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "server.port=0",
+                "logging.level.root=WARN"));
+        allProperties.addAll(List.of(properties));
+
+        return new SpringApplicationBuilder(InternshipApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run(toArguments(allProperties));
+    }
+
+    public static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    // Passed as command line arguments: they take precedence over application.properties and the profile files
+    private static String[] toArguments(List<String> properties) {
+        return properties.stream().map(property -> "--" + property).toArray(String[]::new);
+    }
+
+    // Items get the ids 1..count. Plain JDBC batches, so seeding a million rows does not go through the persistence context
+    public static void seedItems(ConfigurableApplicationContext context, int count) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        // In a transaction, the perf profile turns auto-commit off
+        context.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+
+            for (int i = 0; i < count; i++) {
+                batch.add(new Object[]{i + 1L, "Item " + i, "Description " + i, ItemStatus.NEW.getCode(), "item" + i + "@gmail.com", 0L});
+                if (batch.size() == SEED_BATCH_SIZE || i == count - 1) {
+                    jdbcTemplate.batchUpdate(
+                            "INSERT INTO item (id, name, description, status, email, version) VALUES (?, ?, ?, ?, ?, ?)", batch);
+                    batch.clear();
+                }
+            }
+            // Ids handed out by the pooled sequence must start after the seeded ones
+            jdbcTemplate.execute("ALTER SEQUENCE item_seq RESTART WITH " + (count + 1_000L));
+        });
+        // The rows bypassed the service, so the email registry is loaded again
+        context.getBean(EmailRegistry.class).load();
+    }
+
+    // Plain SQL is invisible to the second-level cache and the ItemDTO cache, so both are cleared with it
+    public static void resetStatuses(ConfigurableApplicationContext context) {
+        context.getBean(TransactionTemplate.class).executeWithoutResult(status ->
+                context.getBean(JdbcTemplate.class).update("UPDATE item SET status = ?", ItemStatus.NEW.getCode()));
+        context.getBean(EntityManagerFactory.class).getCache().evict(Item.class);
+        context.getBean(ItemCache.class).clear();
+    }
+
+    public static long minId(ConfigurableApplicationContext context) {
+        return context.getBean(JdbcTemplate.class).queryForObject("SELECT MIN(id) FROM item", Long.class);
+    }
+}
@@ -0,0 +1,83 @@
+package com.siemens.internship.benchmark;
+
+import com.siemens.internship.annotation.validator.ValidEmailValidator;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.constraints.Email;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Compares ValidEmailValidator with the @Email pattern it replaced, on a valid email and on the input that makes the
+// pattern backtrack: "length" letters that fail right before the '@' (64 is the longest local part @Email lets through).
+// mvn -Pbenchmark verify -Djmh.args="EmailValidation"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailValidationBenchmark {
+
+    private static final String FORMER_REGEXP = "^([a-zA-Z]+[0-9]*[-_.]*)+[a-zA-Z]+[0-9]*"
+            + "@([a-zA-Z]+[0-9]*[.-]*)+[a-zA-Z]+[0-9]*"
+            + "[.][a-zA-Z]{2,4}";
+
+    @Param({"16", "32", "63"})
+    private int length;
+
+    private ValidatorFactory validatorFactory;
+
+    private Validator validator;
+
+    private String validEmail;
+
+    private String adversarialEmail;
+
+    @Setup
+    public void setup() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validEmail = "item" + "a".repeat(length) + "@gmail.com";
+        adversarialEmail = "a".repeat(length) + "!@gmail.com";
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public boolean formerPatternValid() {
+        return validator.validate(new FormerEmail(validEmail)).isEmpty();
+    }
+
+    @Benchmark
+    public boolean formerPatternAdversarial() {
+        return validator.validate(new FormerEmail(adversarialEmail)).isEmpty();
+    }
+
+    @Benchmark
+    public boolean validEmailValidatorValid() {
+        return ValidEmailValidator.isValidEmail(validEmail);
+    }
+
+    @Benchmark
+    public boolean validEmailValidatorAdversarial() {
+        return ValidEmailValidator.isValidEmail(adversarialEmail);
+    }
+
+    private record FormerEmail(@Email(regexp = FORMER_REGEXP) String email) {
+    }
+}
@@ -0,0 +1,71 @@
+package com.siemens.internship.benchmark;
+
+import com.siemens.internship.controller.dto.ItemDTO;
+import com.siemens.internship.processing.ProcessingJob;
+import com.siemens.internship.service.ItemService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Runs processItemsAsync continuously while 8 threads read single items, once per items.processing.executor mode.
+// On Java < 21 the "virtual" mode falls back to the platform pool (see ExecutorConfiguration).
+@State(Scope.Group)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class ExecutorModeBenchmark {
+
+    @Param({"platform", "virtual"})
+    private String executor;
+
+    @Param({"20000"})
+    private int items;
+
+    private ConfigurableApplicationContext context;
+
+    private ItemService itemService;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start("executor-benchmark-" + executor, "items.processing.executor=" + executor);
+        BenchmarkContext.seedItems(context, items);
+        itemService = context.getBean(ItemService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // Every run starts from unprocessed items, the reset is part of the measured time
+    @Benchmark
+    @Group("load")
+    @GroupThreads(1)
+    public ProcessingJob process() throws Exception {
+        BenchmarkContext.resetStatuses(context);
+        return itemService.processItemsAsync(new ProcessingJob()).get();
+    }
+
+    @Benchmark
+    @Group("load")
+    @GroupThreads(8)
+    public ItemDTO findById() {
+        return itemService.findById(1L + ThreadLocalRandom.current().nextInt(items));
+    }
+}
@@ -0,0 +1,91 @@
+package com.siemens.internship.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.siemens.internship.controller.dto.ItemDTO;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The wire formats of GET /api/items: serialization and deserialization time of a list of ItemDTOs per format,
+// and the same serialization followed by gzip, as Tomcat compresses large responses.
+// The bytes on the wire (plain and gzipped) are printed once per format and list size in the setup
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemFormatBenchmark {
+
+    private static final TypeReference<List<ItemDTO>> ITEM_LIST = new TypeReference<>() {
+    };
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"100", "10000"})
+    private int items;
+
+    private ObjectMapper objectMapper;
+
+    private List<ItemDTO> itemDTOs;
+
+    private byte[] serialized;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = switch (format) {
+            case "cbor" -> new CBORMapper();
+            case "smile" -> new SmileMapper();
+            default -> new ObjectMapper();
+        };
+
+        itemDTOs = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            itemDTOs.add(new ItemDTO(i + 1L, "Item " + i, "Description " + i, "NEW", "item" + i + "@gmail.com", 0L));
+        }
+        serialized = objectMapper.writeValueAsBytes(itemDTOs);
+
+        System.out.printf("%n%s, %d items: %d bytes, %d bytes gzipped%n", format, items, serialized.length, gzip(serialized).length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(itemDTOs);
+    }
+
+    @Benchmark
+    public byte[] serializeGzipped() throws IOException {
+        return gzip(objectMapper.writeValueAsBytes(itemDTOs));
+    }
+
+    @Benchmark
+    public List<ItemDTO> deserialize() throws IOException {
+        return objectMapper.readValue(serialized, ITEM_LIST);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,97 @@
+package com.siemens.internship.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Load test of the HTTP API: the embedded server on a file-based H2 database, once with the default settings and once with
+// the perf profile, driven by 32 concurrent clients. Throughput and latency percentiles (SampleTime) per request type:
+// mvn -Pbenchmark verify -Djmh.args="ItemLoadBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(32)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ItemLoadBenchmark {
+
+    @Param({"default", "perf"})
+    private String profile;
+
+    @Param({"100000"})
+    private int items;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private String baseUrl;
+
+    private long minId;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.startServer("load-benchmark-" + profile, profile);
+        BenchmarkContext.seedItems(context, items);
+        minId = BenchmarkContext.minId(context);
+        baseUrl = "http://localhost:" + BenchmarkContext.port(context) + "/api/items";
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getItemById() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + randomId())).GET());
+    }
+
+    @Benchmark
+    public int getItemsPage() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/page?size=100&lastId=" + (randomId() - 1))).GET());
+    }
+
+    // Without If-Match; a conflict with another client (409) is a valid, fast answer as well
+    @Benchmark
+    public int updateItem() throws IOException, InterruptedException {
+        String body = "{\"description\":\"Updated " + ThreadLocalRandom.current().nextInt() + "\"}";
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + randomId()))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(body)));
+    }
+
+    private int send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() >= 500) {
+            throw new IllegalStateException("Request failed with " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    private long randomId() {
+        return minId + ThreadLocalRandom.current().nextInt(items);
+    }
+}
@@ -0,0 +1,72 @@
+package com.siemens.internship.benchmark;
+
+import com.siemens.internship.controller.dto.ItemDTO;
+import com.siemens.internship.mapper.ItemMapper;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
+import java.util.concurrent.TimeUnit;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Compares the hand-written ItemMapper with the reflective ModelMapper it replaced.
+// Run with -prof gc to compare the allocation rate as well.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemMappingBenchmark {
+
+    private ModelMapper modelMapper;
+
+    private ItemMapper itemMapper;
+
+    private Item item;
+
+    private ItemDTO itemDTO;
+
+    @Setup
+    public void setup() {
+        modelMapper = new ModelMapper();
+        itemMapper = new ItemMapper();
+        item = Item.builder()
+                .id(1L)
+                .name("Item 1")
+                .description("Description 1")
+                .status(ItemStatus.NEW)
+                .email("item1@gmail.com")
+                .version(0L)
+                .build();
+        itemDTO = new ItemDTO(1L, "Item 1", "Description 1", "NEW", "item1@gmail.com", 0L);
+    }
+
+    @Benchmark
+    public ItemDTO modelMapperToItemDTO() {
+        return modelMapper.map(item, ItemDTO.class);
+    }
+
+    @Benchmark
+    public ItemDTO itemMapperToItemDTO() {
+        return itemMapper.toItemDTO(item);
+    }
+
+    @Benchmark
+    public Item modelMapperToItem() {
+        return modelMapper.map(itemDTO, Item.class);
+    }
+
+    @Benchmark
+    public Item itemMapperToItem() {
+        return itemMapper.toItem(itemDTO);
+    }
+}
@@ -0,0 +1,93 @@
+package com.siemens.internship.benchmark;
+
+import com.siemens.internship.controller.dto.ItemDTO;
+import com.siemens.internship.service.ItemService;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Throughput and latency percentiles (SampleTime) of the ItemService hot paths on seeded datasets.
+// findAll on the largest dataset is expected to be slow, it is the baseline for the paged and streaming reads.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ItemServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int items;
+
+    private ConfigurableApplicationContext context;
+
+    private ItemService itemService;
+
+    private long minId;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start("service-benchmark-" + items);
+        BenchmarkContext.seedItems(context, items);
+        itemService = context.getBean(ItemService.class);
+        minId = BenchmarkContext.minId(context);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemDTO> findAll() {
+        return itemService.findAll();
+    }
+
+    @Benchmark
+    public ItemDTO findById() {
+        return itemService.findById(randomId());
+    }
+
+    @Benchmark
+    public ItemDTO save() {
+        long next = sequence.incrementAndGet();
+        return itemService.save(ItemDTO.builder()
+                .name("Benchmark " + next)
+                .description("Benchmark description " + next)
+                .status("NEW")
+                .email("benchmark" + next + "@gmail.com")
+                .build());
+    }
+
+    @Benchmark
+    public ItemDTO update() {
+        long id = randomId();
+        return itemService.update(id, ItemDTO.builder()
+                .id(id)
+                .name("Item " + (id - minId))
+                .description("Updated " + sequence.incrementAndGet())
+                .status("NEW")
+                .email("item" + (id - minId) + "@gmail.com")
+                .build());
+    }
+
+    private long randomId() {
+        return minId + ThreadLocalRandom.current().nextInt(items);
+    }
+}
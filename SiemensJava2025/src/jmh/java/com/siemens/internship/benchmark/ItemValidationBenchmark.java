@@ -0,0 +1,65 @@
+package com.siemens.internship.benchmark;
+
+import com.siemens.internship.annotation.validator.UniqueEmailValidator;
+import com.siemens.internship.annotation.validator.ValidEmailValidator;
+import com.siemens.internship.service.ItemService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Cost of validating the email of an incoming ItemDTO: the @ValidEmail format and the uniqueness lookup
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ItemValidationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int items;
+
+    private ConfigurableApplicationContext context;
+
+    private UniqueEmailValidator uniqueEmailValidator;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start("validation-benchmark-" + items);
+        BenchmarkContext.seedItems(context, items);
+        uniqueEmailValidator = new UniqueEmailValidator(context.getBean(ItemService.class), context.getBean(MeterRegistry.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean validEmail() {
+        return ValidEmailValidator.isValidEmail("item" + ThreadLocalRandom.current().nextInt(items) + "@gmail.com");
+    }
+
+    @Benchmark
+    public boolean uniqueEmailExisting() {
+        return uniqueEmailValidator.isValid("item" + ThreadLocalRandom.current().nextInt(items) + "@gmail.com", null);
+    }
+
+    @Benchmark
+    public boolean uniqueEmailNew() {
+        return uniqueEmailValidator.isValid("new" + ThreadLocalRandom.current().nextInt(items) + "@gmail.com", null);
+    }
+}
@@ -0,0 +1,90 @@
+package com.siemens.internship.benchmark;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.processing.ProcessingJob;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.ItemService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Compares the set-based processItemsAsync with the former per-row path (findById + save per item on a pool of 10).
+// The artificial Thread.sleep(100) of the old implementation is left out, so only the database work is compared.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProcessItemsBenchmark {
+
+    @Param({"10000"})
+    private int items;
+
+    private ConfigurableApplicationContext context;
+
+    private ItemService itemService;
+
+    private ItemRepository itemRepository;
+
+    private ExecutorService perRowExecutor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start("process-benchmark");
+        BenchmarkContext.seedItems(context, items);
+        itemService = context.getBean(ItemService.class);
+        itemRepository = context.getBean(ItemRepository.class);
+        perRowExecutor = Executors.newFixedThreadPool(10);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetStatuses() {
+        BenchmarkContext.resetStatuses(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        perRowExecutor.shutdown();
+        context.close();
+    }
+
+    @Benchmark
+    public long bulk() throws Exception {
+        return itemService.processItemsAsync(new ProcessingJob()).get().getProcessed().get();
+    }
+
+    @Benchmark
+    public int perRow() {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Long itemId : itemRepository.findAllIds()) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                Item item = itemRepository.findById(itemId).orElseThrow();
+                if (item.getStatus() != ItemStatus.PROCESSED) {
+                    item.setStatus(ItemStatus.PROCESSED);
+                    itemRepository.save(item);
+                }
+            }, perRowExecutor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        return futures.size();
+    }
+}
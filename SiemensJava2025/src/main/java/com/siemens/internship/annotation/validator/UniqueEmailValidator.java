@@ -1,24 +1,28 @@
 package com.siemens.internship.annotation.validator;
 
 import com.siemens.internship.annotation.UniqueEmail;
-import com.siemens.internship.exception.ObjectNotFoundException;
 import com.siemens.internship.service.ItemService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
-import lombok.RequiredArgsConstructor;
 
-@RequiredArgsConstructor
+// Created by Spring's constraint validator factory, not proxied, so it is timed by hand
 public class UniqueEmailValidator implements ConstraintValidator<UniqueEmail, String> {
 
+    public static final String TIMER = "items.validation.unique-email";
+
     private final ItemService itemService;
 
+    private final Timer timer;
+
+    public UniqueEmailValidator(ItemService itemService, MeterRegistry meterRegistry) {
+        this.itemService = itemService;
+        this.timer = meterRegistry.timer(TIMER);
+    }
+
     @Override
     public boolean isValid(String email, ConstraintValidatorContext constraintValidatorContext) {
-        try {
-            itemService.findByEmail(email);
-            return false;
-        } catch (ObjectNotFoundException e) {
-            return true;
-        }
+        return email == null || timer.record(() -> !itemService.existsByEmail(email));
     }
 }
@@ -0,0 +1,120 @@
+package com.siemens.internship.annotation.validator;
+
+import com.siemens.internship.annotation.ValidEmail;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+// Accepts exactly what the former @Email(regexp = "^([a-zA-Z]+[0-9]*[-_.]*)+[a-zA-Z]+[0-9]*@([a-zA-Z]+[0-9]*[.-]*)+[a-zA-Z]+[0-9]*[.][a-zA-Z]{2,4}")
+// accepted, together with the checks @Email makes before the pattern. The nested quantifiers of that pattern backtrack
+// over every way to split a run of letters that fails late (e.g. "aaaa…a!@gmail.com", "ab@aaaa…a.aaaa…a1"), milliseconds
+// per email within the length limits; this is one pass over the characters.
+// Local part (before the single '@'), at most 64 characters of letters, digits, '-', '_' and '.':
+// - starts with a letter, no digit right after a separator and no ".."
+// - without its trailing digits, it ends with a letter and is at least 2 characters long
+// Domain, at most 255 characters: the same rules with '.' and '-' as separators, and "-." / ".-" are not allowed either;
+// labels of at most 63 characters, the last one (after the last '.') of 2 to 4 letters
+public class ValidEmailValidator implements ConstraintValidator<ValidEmail, String> {
+
+    private static final int MAX_LOCAL_PART_LENGTH = 64;
+    private static final int MAX_DOMAIN_LENGTH = 255;
+    private static final int MAX_LABEL_LENGTH = 63;
+
+    // A missing email is reported by @NotNull
+    @Override
+    public boolean isValid(String email, ConstraintValidatorContext constraintValidatorContext) {
+        return email == null || isValidEmail(email);
+    }
+
+    public static boolean isValidEmail(String email) {
+        int at = localPartEnd(email);
+        return at > 0 && isValidDomain(email, at + 1);
+    }
+
+    // The index of the '@' that ends a valid local part, -1 otherwise
+    private static int localPartEnd(String email) {
+        int lastNonDigit = -1;
+        char previous = 0;
+
+        for (int i = 0; i < email.length() && i <= MAX_LOCAL_PART_LENGTH; i++) {
+            char c = email.charAt(i);
+            if (c == '@') {
+                return lastNonDigit >= 1 && isLetter(email.charAt(lastNonDigit)) ? i : -1;
+            }
+            if (isDigit(c)) {
+                if (i == 0 || isSeparator(previous)) {
+                    return -1;
+                }
+            } else {
+                boolean valid = isLetter(c) || (i > 0 && (c == '-' || c == '_' || (c == '.' && previous != '.')));
+                if (!valid) {
+                    return -1;
+                }
+                lastNonDigit = i;
+            }
+            previous = c;
+        }
+        return -1;
+    }
+
+    private static boolean isValidDomain(String email, int start) {
+        int end = email.length();
+        if (end - start > MAX_DOMAIN_LENGTH) {
+            return false;
+        }
+
+        int lastNonDigit = -1;
+        int lastNonDigitBeforeDot = -1;
+        int lastDot = -1;
+        int labelStart = start;
+        char previous = 0;
+
+        for (int i = start; i < end; i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                if (i == start || isSeparator(previous)) {
+                    return false;
+                }
+                lastNonDigitBeforeDot = lastNonDigit;
+                lastDot = i;
+                labelStart = i + 1;
+            } else if (isDigit(c)) {
+                if (i == start || isSeparator(previous)) {
+                    return false;
+                }
+            } else if (isLetter(c) || (c == '-' && i > start && previous != '.')) {
+                lastNonDigit = i;
+            } else {
+                return false;
+            }
+            if (i - labelStart + 1 > MAX_LABEL_LENGTH) {
+                return false;
+            }
+            previous = c;
+        }
+
+        // Before the last dot: at least 2 characters without the trailing digits (the pattern needs two runs of letters).
+        // After it: the top-level domain, 2 to 4 letters
+        int tldLength = end - lastDot - 1;
+        if (lastDot < 0 || lastNonDigitBeforeDot < start + 1 || tldLength < 2 || tldLength > 4) {
+            return false;
+        }
+        for (int i = lastDot + 1; i < end; i++) {
+            if (!isLetter(email.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '.' || c == '-' || c == '_';
+    }
+}
@@ -0,0 +1,15 @@
+package com.siemens.internship.annotation.validator;
+
+import com.siemens.internship.annotation.ValidStatus;
+import com.siemens.internship.model.ItemStatus;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class ValidStatusValidator implements ConstraintValidator<ValidStatus, String> {
+
+    // A missing status is reported by @NotBlank
+    @Override
+    public boolean isValid(String status, ConstraintValidatorContext constraintValidatorContext) {
+        return status == null || status.isBlank() || ItemStatus.isValid(status);
+    }
+}
@@ -0,0 +1,71 @@
+package com.siemens.internship.cache;
+
+import com.siemens.internship.repository.ItemRepository;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+// In-memory set of all item emails (normalized), used as a negative filter: an email it does not hold is free without a
+// database query. A hit is confirmed by the database, since other instances change emails this set never sees, and dropped
+// when it is stale. Emails registered by other instances are missed, the unique index on item.email_key rejects them.
+@Component
+public class EmailRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(EmailRegistry.class);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private final Set<String> emails = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean loaded;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        try (Stream<String> allEmails = itemRepository.streamAllEmails()) {
+            allEmails.map(EmailRegistry::normalize).forEach(emails::add);
+        }
+        loaded = true;
+        logger.info("Email registry loaded with {} emails", emails.size());
+    }
+
+    public boolean contains(String email) {
+        String emailKey = normalize(email);
+        // Until the registry is loaded every email is checked in the database
+        if (loaded && !emails.contains(emailKey)) {
+            return false;
+        }
+        if (itemRepository.existsByEmailKey(emailKey)) {
+            return true;
+        }
+        // Deleted or changed by another instance. Racing a local insert of the same email, the email may be dropped although
+        // it is taken: the index still rejects the duplicate
+        if (loaded) {
+            emails.remove(emailKey);
+        }
+        return false;
+    }
+
+    // Changes only become visible once the surrounding transaction (if any) is committed,
+    // a rolled back insert must not reserve its email
+    public void register(String email) {
+        TransactionCallbacks.afterCommit(() -> emails.add(normalize(email)));
+    }
+
+    public void unregister(String email) {
+        TransactionCallbacks.afterCommit(() -> emails.remove(normalize(email)));
+    }
+
+    // The same as the generated item.email_key column
+    public static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,150 @@
+package com.siemens.internship.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.siemens.internship.controller.dto.ItemDTO;
+import com.siemens.internship.mapper.ItemMapper;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Read-through cache of ready-made ItemDTOs in front of findById and findByEmail, so a hit needs neither a query nor a mapping.
+// Caffeine evicts with W-TinyLFU, bounded by the estimated size of the cached DTOs. A miss is loaded once per key:
+// concurrent requests for the same id wait for that load instead of all going to the database.
+@Component
+public class ItemCache {
+
+    public static final String ITEMS_CACHE = "items";
+    public static final String EMAILS_CACHE = "item-ids-by-email";
+
+    // Estimated size of a cached DTO without its strings: headers and fields of the DTO, the Long key and the cache node
+    private static final int ENTRY_OVERHEAD_BYTES = 160;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemMapper itemMapper;
+
+    private final LoadingCache<Long, ItemDTO> itemsById;
+
+    // Only the id is kept per normalized email (EmailRegistry.normalize, like the unique email_key), the DTO itself lives
+    // once in itemsById
+    private final LoadingCache<String, Long> idsByEmail;
+
+    public ItemCache(@Value("${items.cache.maximum-weight:67108864}") long maximumWeight,
+                     @Value("${items.cache.maximum-emails:100000}") long maximumEmails,
+                     @Value("${items.cache.expire-after-write:10m}") Duration expireAfterWrite,
+                     MeterRegistry meterRegistry) {
+        itemsById = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher(ItemCache::weigh)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(this::loadById);
+        idsByEmail = Caffeine.newBuilder()
+                .maximumSize(maximumEmails)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(this::loadIdByEmail);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, itemsById, ITEMS_CACHE);
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByEmail, EMAILS_CACHE);
+    }
+
+    public Optional<ItemDTO> findById(Long id) {
+        return Optional.ofNullable(itemMapper.copy(itemsById.get(id)));
+    }
+
+    // Emails differing only in case resolve to the same item, as they are the same email for the unique index
+    public Optional<ItemDTO> findByEmail(String email) {
+        String emailKey = EmailRegistry.normalize(email);
+        Long id = idsByEmail.get(emailKey);
+        if (id == null) {
+            return Optional.empty();
+        }
+
+        ItemDTO item = itemsById.get(id);
+        if (item == null || !emailKey.equals(EmailRegistry.normalize(item.getEmail()))) {
+            // The email changed hands since the id was cached, the database decides
+            idsByEmail.invalidate(emailKey);
+            return itemRepository.findByEmailKey(emailKey).map(itemMapper::toItemDTO);
+        }
+        return Optional.of(itemMapper.copy(item));
+    }
+
+    // Only what is cached, nothing is loaded. A bulk load is not atomic per id like the loads of findById, an update committed
+    // during it could be put back stale, so bulk lookups read the rest from the database without caching it
+    public Map<Long, ItemDTO> findAllPresent(Collection<Long> ids) {
+        Map<Long, ItemDTO> items = new HashMap<>();
+        itemsById.getAllPresent(ids).forEach((id, item) -> items.put(id, itemMapper.copy(item)));
+        return items;
+    }
+
+    // Only the version of the cached DTO, for conditional reads: neither copied nor mapped, and no query on a hit
+    public Optional<Long> findVersion(Long id) {
+        return Optional.ofNullable(itemsById.get(id)).map(ItemDTO::getVersion);
+    }
+
+    // Like the email registry, the cache only sees an item once its transaction is committed
+    public void put(ItemDTO item) {
+        ItemDTO copy = itemMapper.copy(item);
+        TransactionCallbacks.afterCommit(() -> {
+            itemsById.put(copy.getId(), copy);
+            idsByEmail.put(EmailRegistry.normalize(copy.getEmail()), copy.getId());
+        });
+    }
+
+    // Evicted right away, so this transaction does not read the old value, and again after the commit,
+    // so a concurrent read of the old row does not put it back
+    public void evict(Long id, String email) {
+        Runnable eviction = () -> {
+            itemsById.invalidate(id);
+            idsByEmail.invalidate(EmailRegistry.normalize(email));
+        };
+        eviction.run();
+        TransactionCallbacks.afterCommit(eviction);
+    }
+
+    // Used after the set-based status update, which leaves the emails untouched
+    public void evictAll(Collection<Long> ids) {
+        itemsById.invalidateAll(ids);
+    }
+
+    public void clear() {
+        itemsById.invalidateAll();
+        idsByEmail.invalidateAll();
+    }
+
+    private ItemDTO loadById(Long id) {
+        return itemRepository.findById(id)
+                .map(itemMapper::toItemDTO)
+                .orElse(null);
+    }
+
+    // The item read with the id is only cached when its id is not: an update committed since the read has put (or evicted)
+    // its own DTO after the commit, which must not be replaced by the older one read here
+    private Long loadIdByEmail(String emailKey) {
+        Optional<Item> item = itemRepository.findByEmailKey(emailKey);
+        item.ifPresent(found -> itemsById.get(found.getId(), id -> itemMapper.toItemDTO(found)));
+        return item.map(Item::getId).orElse(null);
+    }
+
+    private static int weigh(Long id, ItemDTO item) {
+        return ENTRY_OVERHEAD_BYTES + 2 * (length(item.getName()) + length(item.getDescription())
+                + length(item.getStatus()) + length(item.getEmail()));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
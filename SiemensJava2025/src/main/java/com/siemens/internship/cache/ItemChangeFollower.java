@@ -0,0 +1,72 @@
+package com.siemens.internship.cache;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemChange;
+import com.siemens.internship.outbox.ItemChangeLog;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+// The caches of a node (ItemCache and the Item regions of the second-level cache) are only updated by its own writes.
+// Every node follows the outbox in commit order and evicts the items that changed, on any node, so a write of another node is
+// seen here at most one interval later. The own writes are evicted once more, the next read loads them again
+@Component
+public class ItemChangeFollower {
+
+    static final int PAGE_SIZE = 1000;
+
+    @Autowired
+    private ItemChangeLog itemChangeLog;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Value("${items.cache.invalidation-interval:1s}")
+    private Duration interval;
+
+    // Position of the last change evicted; nothing was cached before the start
+    private long cursor;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        cursor = itemChangeLog.lastPosition();
+        taskScheduler.scheduleWithFixedDelay(this::evictChanges, interval);
+    }
+
+    void evictChanges() {
+        List<ItemChange> changes;
+        do {
+            changes = itemChangeLog.findAfter(cursor, PAGE_SIZE);
+            if (!changes.isEmpty()) {
+                evict(changes);
+                cursor = changes.get(changes.size() - 1).getPosition();
+            }
+        } while (changes.size() == PAGE_SIZE);
+    }
+
+    private void evict(List<ItemChange> changes) {
+        List<Long> itemIds = changes.stream()
+                .map(ItemChange::getItemId)
+                .distinct()
+                .toList();
+        itemCache.evictAll(itemIds);
+        itemIds.forEach(itemId -> entityManagerFactory.getCache().evict(Item.class, itemId));
+        // An email that moved to another item, or was freed by a delete, may still resolve to the old id
+        if (changes.stream().anyMatch(change -> change.getType() == ItemChange.Type.UPDATED || change.getType() == ItemChange.Type.DELETED)) {
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictNaturalIdData(Item.class);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.siemens.internship.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+// Bulkhead between the request path and the background processing: two connection pools on the same database.
+// - interactive: spring.datasource.hikari.*, for the request threads (and everything that does not run on the processing executor)
+// - processing: the same settings with items.processing.datasource.maximum-pool-size connections, for the processing executor
+// JPA, JdbcTemplate and the transactions use the routing data source, so a processing run never waits for, or takes, the
+// connections of the requests
+@Configuration
+public class DataSourceConfiguration {
+
+    public static final String INTERACTIVE_POOL = "interactive";
+    public static final String PROCESSING_POOL = "processing";
+
+    @Value("${items.processing.datasource.maximum-pool-size:4}")
+    private int processingConnections;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource interactiveDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(INTERACTIVE_POOL);
+        return dataSource;
+    }
+
+    // Copied from the interactive pool once its properties are bound
+    @Bean
+    public HikariDataSource processingDataSource(@Qualifier("interactiveDataSource") HikariDataSource interactiveDataSource) {
+        HikariConfig config = new HikariConfig();
+        interactiveDataSource.copyStateTo(config);
+        config.setPoolName(PROCESSING_POOL);
+        config.setMaximumPoolSize(processingConnections);
+        // Unset (-1), the minimum idle follows the pool size
+        if (interactiveDataSource.getMinimumIdle() >= 0) {
+            config.setMinimumIdle(Math.min(processingConnections, interactiveDataSource.getMinimumIdle()));
+        }
+        return new HikariDataSource(config);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("interactiveDataSource") HikariDataSource interactiveDataSource,
+                                 @Qualifier("processingDataSource") HikariDataSource processingDataSource) {
+        WorkloadRoutingDataSource dataSource = new WorkloadRoutingDataSource();
+        dataSource.setTargetDataSources(Map.of(
+                WorkloadRoutingDataSource.Workload.INTERACTIVE, interactiveDataSource,
+                WorkloadRoutingDataSource.Workload.PROCESSING, processingDataSource));
+        dataSource.setDefaultTargetDataSource(interactiveDataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,106 @@
+package com.siemens.internship.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+// Execution strategy of the item processing (and every @Async method), selected by items.processing.executor:
+// - platform: a bounded pool with one thread per connection of the processing pool, plus the pipeline stages
+// - virtual: the same pool, with a virtual thread per task (Java 21+)
+// Its tasks take their connections from the processing pool (DataSourceConfiguration), never from the one of the requests.
+// The progress events of the jobs are written by a small pool of their own, so a slow client never holds a processing thread.
+// Periodic tasks (ItemChangeFollower) run on Boot's task scheduler
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class ExecutorConfiguration implements AsyncConfigurer {
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorConfiguration.class);
+
+    public static final String PROCESSING_EXECUTOR = "processingExecutor";
+    public static final String EVENTS_EXECUTOR = "processingEventsExecutor";
+
+    private static final int PROCESSING_QUEUE_CAPACITY = 1000;
+
+    // The job, its transformer and its writer wait on queues, not on connections
+    static final int PIPELINE_THREADS = 3;
+
+    @Value("${items.processing.executor:platform}")
+    private String executorMode;
+
+    // The other processing tasks only do database work, so more parallel tasks than connections would just wait for the pool
+    @Value("${items.processing.datasource.maximum-pool-size:4}")
+    private int databaseConnections;
+
+    @Value("${items.processing.events.threads:2}")
+    private int eventThreads;
+
+    @Bean(name = PROCESSING_EXECUTOR)
+    public TaskExecutor processingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("item-processing-");
+        if ("virtual".equals(executorMode)) {
+            if (virtualThreadsSupported()) {
+                // Every task still gets a thread of its own, started by the pool: a virtual one
+                executor.setThreadFactory(new VirtualThreadTaskExecutor("item-processing-").getVirtualThreadFactory());
+            } else {
+                logger.warn("Virtual threads need Java 21 or newer (running on {}), using the platform pool instead",
+                        Runtime.version().feature());
+            }
+        }
+        executor.setCorePoolSize(databaseConnections + PIPELINE_THREADS);
+        executor.setMaxPoolSize(databaseConnections + PIPELINE_THREADS);
+        executor.setQueueCapacity(PROCESSING_QUEUE_CAPACITY);
+        executor.setTaskDecorator(WorkloadRoutingDataSource.processingTasks());
+        // A full queue rejects the task (TaskRejectedException) instead of running it on the submitting thread: a job that
+        // cannot be queued is answered with 503, it never holds the request thread
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    // Blocking SSE writes only. The queue is not bounded, but holds at most one task per subscriber (they are coalesced),
+    // so a submission never fails or runs on the pipeline thread that signalled
+    @Bean(name = EVENTS_EXECUTOR)
+    public TaskExecutor processingEventsExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("item-processing-events-");
+        executor.setCorePoolSize(eventThreads);
+        executor.setMaxPoolSize(eventThreads);
+        executor.initialize();
+        return executor;
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return processingExecutor();
+    }
+
+    // Tomcat handles requests on virtual threads as well, the request concurrency is then bounded by the interactive pool
+    @Bean
+    @ConditionalOnProperty(name = "items.processing.executor", havingValue = "virtual")
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (virtualThreadsSupported()) {
+                protocolHandler.setExecutor(new VirtualThreadTaskExecutor("tomcat-handler-"));
+            }
+        };
+    }
+
+    static boolean virtualThreadsSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+}
@@ -0,0 +1,57 @@
+package com.siemens.internship.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+// Requests being handled on the request threads (a streamed or SSE response only while its request thread works on it).
+// Background processing yields to them: it waits while more than items.processing.yield.request-threshold requests are in
+// flight, at most items.processing.yield.max-wait at a time, so it slows down under interactive load but always finishes
+@Component
+public class InteractiveLoad extends OncePerRequestFilter {
+
+    private static final long POLL_MILLIS = 5;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    @Value("${items.processing.yield.request-threshold:4}")
+    private int requestThreshold;
+
+    @Value("${items.processing.yield.max-wait:1s}")
+    private Duration maxWait;
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    // The time it waited, 0 when the load was low
+    public long yieldToRequests() throws InterruptedException {
+        if (inFlight.get() <= requestThreshold) {
+            return 0;
+        }
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + maxWait.toNanos();
+        while (inFlight.get() > requestThreshold && System.nanoTime() < deadline) {
+            Thread.sleep(POLL_MILLIS);
+        }
+        return System.nanoTime() - startedAt;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        inFlight.incrementAndGet();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.siemens.internship.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import javax.cache.CacheManager;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// @Timed on beans (ItemServiceImpl) is only measured through this aspect.
+// The processing pool is bound by Boot's executor metrics (executor.active, executor.queued, executor.completed, ...)
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    // Every region of the second-level cache (application.conf) reports the JCache statistics Caffeine keeps for it:
+    // cache.gets (result=hit|miss), cache.puts, cache.removals, cache.evictions, tagged with cache=<region>.
+    // Hibernate statistics, which cost work on every statement, are not needed for them
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            CacheManager cacheManager = ((JCacheRegionFactory) entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                    .getCache()
+                    .getRegionFactory())
+                    .getCacheManager();
+            for (String region : cacheManager.getCacheNames()) {
+                JCacheMetrics.monitor(registry, cacheManager.getCache(region));
+            }
+        };
+    }
+}
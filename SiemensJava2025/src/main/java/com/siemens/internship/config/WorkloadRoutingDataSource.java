@@ -0,0 +1,37 @@
+package com.siemens.internship.config;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// Hands out the connections of the pool of the workload the current thread works for. The tasks of the processing executor
+// are marked by its decorator (also when a full queue runs one on the submitting thread), every other thread is interactive
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Workload {
+        INTERACTIVE,
+        PROCESSING
+    }
+
+    private static final ThreadLocal<Workload> CURRENT_WORKLOAD = ThreadLocal.withInitial(() -> Workload.INTERACTIVE);
+
+    public static Workload currentWorkload() {
+        return CURRENT_WORKLOAD.get();
+    }
+
+    public static TaskDecorator processingTasks() {
+        return task -> () -> {
+            Workload previous = CURRENT_WORKLOAD.get();
+            CURRENT_WORKLOAD.set(Workload.PROCESSING);
+            try {
+                task.run();
+            } finally {
+                CURRENT_WORKLOAD.set(previous);
+            }
+        };
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return CURRENT_WORKLOAD.get();
+    }
+}
@@ -1,8 +1,18 @@
 package com.siemens.internship.controller;
 
+import com.siemens.internship.controller.dto.BatchResultDTO;
+import com.siemens.internship.controller.dto.ItemChangePageDTO;
 import com.siemens.internship.controller.dto.ItemDTO;
+import com.siemens.internship.controller.dto.ItemLookupDTO;
+import com.siemens.internship.controller.dto.ItemPageDTO;
+import com.siemens.internship.controller.dto.ProcessingJobDTO;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.UUID;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,26 +20,67 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RequestMapping("/api/items")
 public interface ItemController {
 
     @GetMapping
-    public ResponseEntity<List<ItemDTO>> getAllItems();
+    public ResponseEntity<List<ItemDTO>> getAllItems(WebRequest request);
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllItems();
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<ItemLookupDTO> getItemsByIds(@RequestParam List<Long> ids);
+
+    @PostMapping(value = "/lookup", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ItemLookupDTO> lookupItems(@RequestBody List<Long> ids);
+
+    @GetMapping("/page")
+    public ResponseEntity<ItemPageDTO> getItemsPage(@RequestParam(required = false) Long lastId,
+                                                    @RequestParam(defaultValue = "100") int size);
+
+    @GetMapping("/changes")
+    public ResponseEntity<ItemChangePageDTO> getItemChanges(@RequestParam(defaultValue = "0") long since,
+                                                            @RequestParam(defaultValue = "100") int limit);
 
     @PostMapping
     public ResponseEntity<ItemDTO> createItem(@Valid @RequestBody ItemDTO itemDTO);
 
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchResultDTO> createItems(@RequestBody List<ItemDTO> itemDTOs);
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BatchResultDTO> createItemsFromStream(InputStream inputStream) throws IOException;
+
     @GetMapping("/{id}")
-    public ResponseEntity<ItemDTO> getItemById(@PathVariable Long id);
+    public ResponseEntity<ItemDTO> getItemById(@PathVariable Long id, WebRequest request);
 
     @PutMapping("/{id}")
-    public ResponseEntity<ItemDTO> updateItem(@PathVariable Long id, @RequestBody ItemDTO itemDTO);
+    public ResponseEntity<ItemDTO> updateItem(@PathVariable Long id, @RequestBody ItemDTO itemDTO,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch);
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteItem(@PathVariable Long id);
 
-    @GetMapping("/process")
-    public ResponseEntity<List<ItemDTO>> processItems();
+    @PostMapping("/process")
+    public ResponseEntity<ProcessingJobDTO> processItems();
+
+    @PostMapping("/process/retry-failed")
+    public ResponseEntity<ProcessingJobDTO> retryFailedItems();
+
+    @GetMapping("/process/{jobId}")
+    public ResponseEntity<ProcessingJobDTO> getProcessingJob(@PathVariable UUID jobId,
+                                                             @RequestParam(defaultValue = "0") long offset,
+                                                             @RequestParam(defaultValue = "1000") int limit);
+
+    @GetMapping(value = "/process/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamProcessingJob(@PathVariable UUID jobId,
+                                                          @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId);
 }
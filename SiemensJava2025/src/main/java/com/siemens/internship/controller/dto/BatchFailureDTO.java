@@ -0,0 +1,20 @@
+package com.siemens.internship.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchFailureDTO {
+
+    // Position of the rejected item in the request (0-based)
+    private int index;
+
+    private String email;
+
+    private String message;
+}
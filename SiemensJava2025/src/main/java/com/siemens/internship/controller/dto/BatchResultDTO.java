@@ -0,0 +1,21 @@
+package com.siemens.internship.controller.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class BatchResultDTO {
+
+    private int received;
+
+    private int created;
+
+    private List<BatchFailureDTO> failures = new ArrayList<>();
+
+    public void addFailure(int index, String email, String message) {
+        failures.add(new BatchFailureDTO(index, email, message));
+    }
+}
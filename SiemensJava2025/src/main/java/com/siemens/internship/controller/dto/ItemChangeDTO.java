@@ -0,0 +1,29 @@
+package com.siemens.internship.controller.dto;
+
+import com.siemens.internship.model.ItemChange;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ItemChangeDTO {
+
+    // Position of the change in the stream, the cursor to continue after it
+    private Long cursor;
+
+    private Long itemId;
+
+    private ItemChange.Type type;
+
+    // Version of the item after the change (the last one for a deletion)
+    private Long itemVersion;
+
+    private Instant changedAt;
+}
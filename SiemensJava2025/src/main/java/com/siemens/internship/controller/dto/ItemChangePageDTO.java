@@ -0,0 +1,21 @@
+package com.siemens.internship.controller.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ItemChangePageDTO {
+
+    private List<ItemChangeDTO> changes;
+
+    // Cursor for the next request: the last returned change, or the requested cursor when there is nothing new yet
+    private Long nextCursor;
+}
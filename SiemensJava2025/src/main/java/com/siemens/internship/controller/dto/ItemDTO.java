@@ -1,7 +1,8 @@
 package com.siemens.internship.controller.dto;
 
 import com.siemens.internship.annotation.UniqueEmail;
-import jakarta.validation.constraints.Email;
+import com.siemens.internship.annotation.ValidEmail;
+import com.siemens.internship.annotation.ValidStatus;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -26,13 +27,14 @@ public class ItemDTO {
     private String description;
 
     @NotBlank(message = "Status is mandatory!")
+    @ValidStatus(message = "Status must be one of NEW, PROCESSED!")
     private String status;
 
     @NotNull(message = "Email is mandatory!")
-    @Email(regexp = "^([a-zA-Z]+[0-9]*[-_.]*)+[a-zA-Z]+[0-9]*" + // [email name]
-            "@([a-zA-Z]+[0-9]*[.-]*)+[a-zA-Z]+[0-9]*" + // [app]
-            "[.][a-zA-Z]{2,4}", // [domain]
-            message = "Email is invalid!")
+    @ValidEmail(message = "Email is invalid!")
     @UniqueEmail(message = "This email is already taken!")
     private String email;
+
+    // Read-only for creation; on update, the version the client last read (If-Match takes precedence)
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.siemens.internship.controller.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ItemLookupDTO {
+
+    // In the order of the requested ids, a repeated id once
+    private List<ItemDTO> items;
+
+    // Requested ids without an item, in the same order
+    private List<Long> missingIds;
+}
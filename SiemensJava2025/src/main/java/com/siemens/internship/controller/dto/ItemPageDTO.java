@@ -0,0 +1,21 @@
+package com.siemens.internship.controller.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ItemPageDTO {
+
+    private List<ItemDTO> items;
+
+    // Cursor for the next page (the id of the last returned item), null when there are no more items
+    private Long nextLastId;
+}
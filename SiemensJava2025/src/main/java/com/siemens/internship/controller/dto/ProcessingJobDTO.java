@@ -0,0 +1,70 @@
+package com.siemens.internship.controller.dto;
+
+import com.siemens.internship.processing.ProcessingJob;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProcessingJobDTO {
+
+    private UUID jobId;
+
+    private ProcessingJob.Status status;
+
+    private long total;
+
+    private long processed;
+
+    private long skipped;
+
+    private long failed;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    private String error;
+
+    // Items written per second since the start (until the end, once finished)
+    private double itemsPerSecond;
+
+    // One page of the ids moved to "PROCESSED" by this job
+    private List<Long> processedIds;
+
+    // Offset of the next page of processed ids, null when there are no more
+    private Long nextOffset;
+
+    // finished is the status read before the page of ids: once a finished job is seen, its processed ids are final
+    public static ProcessingJobDTO from(ProcessingJob job, boolean finished, long offset, List<Long> processedIds) {
+        long next = offset + processedIds.size();
+        long processed = job.getProcessed().get();
+        Instant until = job.getFinishedAt() == null ? Instant.now() : job.getFinishedAt();
+        double seconds = Math.max(Duration.between(job.getStartedAt(), until).toNanos() / 1e9, 1e-3);
+
+        return ProcessingJobDTO.builder()
+                .jobId(job.getId())
+                .status(job.getStatus())
+                .total(job.getTotal())
+                .processed(processed)
+                .skipped(job.getSkipped().get())
+                .failed(job.getFailed().get())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .error(job.getError())
+                .itemsPerSecond(processed / seconds)
+                .processedIds(processedIds)
+                .nextOffset(finished && next >= processed ? null : next)
+                .build();
+    }
+}
@@ -1,14 +1,41 @@
 package com.siemens.internship.controller.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import com.siemens.internship.controller.ItemController;
+import com.siemens.internship.controller.dto.BatchResultDTO;
+import com.siemens.internship.controller.dto.ItemChangeDTO;
+import com.siemens.internship.controller.dto.ItemChangePageDTO;
 import com.siemens.internship.controller.dto.ItemDTO;
+import com.siemens.internship.controller.dto.ItemLookupDTO;
+import com.siemens.internship.controller.dto.ItemPageDTO;
+import com.siemens.internship.controller.dto.ProcessingJobDTO;
+import com.siemens.internship.processing.ProcessingEventStream;
+import com.siemens.internship.processing.ProcessingJob;
+import com.siemens.internship.processing.ProcessingJobRegistry;
 import com.siemens.internship.service.ItemService;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
+import java.util.UUID;
+import java.util.function.Consumer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 public class ItemControllerImpl implements ItemController {
@@ -16,24 +43,128 @@ public class ItemControllerImpl implements ItemController {
     @Autowired
     private ItemService itemService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProcessingJobRegistry processingJobRegistry;
+
+    @Autowired
+    private ProcessingEventStream processingEventStream;
+
+    private static final int MAX_PROCESSED_IDS_PAGE = 10_000;
+
+    // Conditional GETs: the entity tag is known before anything is read or mapped, an unchanged resource is answered
+    // with 304 Not Modified (checkNotModified writes it, including the ETag header) and an empty body
+    @Override
+    public ResponseEntity<List<ItemDTO>> getAllItems(WebRequest request) {
+        // Taken before the items are read, so the tag is never newer than the items it is sent with.
+        // Weak: Tomcat does not gzip a response with a strong tag, and If-None-Match compares weakly anyway
+        String eTag = "W/" + toETag(itemService.findAllVersion());
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok().eTag(eTag).body(itemService.findAll());
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> streamAllItems() {
+        // Every item is written as one JSON line as soon as it is read, nothing is collected in memory
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = objectMapper.writer()
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                itemService.streamAll(itemDTO -> {
+                    try {
+                        writer.write(itemDTO);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Many items in one request instead of one GET /api/items/{id} each, the missing ids are part of the answer
+    @Override
+    public ResponseEntity<ItemLookupDTO> getItemsByIds(List<Long> ids) {
+        return new ResponseEntity<>(itemService.findAllById(ids), HttpStatus.OK);
+    }
+
+    // The same for lists of ids too long for a URL
     @Override
-    public ResponseEntity<List<ItemDTO>> getAllItems() {
-        return new ResponseEntity<>(itemService.findAll(), HttpStatus.OK);
+    public ResponseEntity<ItemLookupDTO> lookupItems(List<Long> ids) {
+        return new ResponseEntity<>(itemService.findAllById(ids), HttpStatus.OK);
+    }
+
+    @Override
+    public ResponseEntity<ItemPageDTO> getItemsPage(Long lastId, int size) {
+        List<ItemDTO> items = itemService.findPage(lastId, size);
+        Long nextLastId = items.size() < size ? null : items.get(items.size() - 1).getId();
+
+        return new ResponseEntity<>(new ItemPageDTO(items, nextLastId), HttpStatus.OK);
+    }
+
+    // Consumers tail the outbox: they keep the returned cursor and ask again for what changed after it
+    @Override
+    public ResponseEntity<ItemChangePageDTO> getItemChanges(long since, int limit) {
+        List<ItemChangeDTO> changes = itemService.findChanges(since, limit);
+        long nextCursor = changes.isEmpty() ? since : changes.get(changes.size() - 1).getCursor();
+
+        return new ResponseEntity<>(new ItemChangePageDTO(changes, nextCursor), HttpStatus.OK);
     }
 
     @Override
     public ResponseEntity<ItemDTO> createItem(ItemDTO itemDTO) {
-        return new ResponseEntity<>(itemService.save(itemDTO), HttpStatus.CREATED);
+        ItemDTO savedItem = itemService.save(itemDTO);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(toETag(savedItem.getVersion())).body(savedItem);
+    }
+
+    @Override
+    public ResponseEntity<BatchResultDTO> createItems(List<ItemDTO> itemDTOs) {
+        return new ResponseEntity<>(itemService.saveAll(itemDTOs.iterator()), HttpStatus.CREATED);
     }
 
     @Override
-    public ResponseEntity<ItemDTO> getItemById(Long id) {
-        return new ResponseEntity<>(itemService.findById(id), HttpStatus.FOUND);
+    public ResponseEntity<BatchResultDTO> createItemsFromStream(InputStream inputStream) throws IOException {
+        // The body is parsed line by line while the items are saved, a malformed line becomes a null item,
+        // which is reported as a failure of its own instead of aborting the whole import
+        ObjectReader reader = objectMapper.readerFor(ItemDTO.class);
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            Iterator<ItemDTO> itemDTOs = lines.lines()
+                    .filter(line -> !line.isBlank())
+                    .map(line -> readItem(reader, line))
+                    .iterator();
+
+            return new ResponseEntity<>(itemService.saveAll(itemDTOs), HttpStatus.CREATED);
+        }
     }
 
     @Override
-    public ResponseEntity<ItemDTO> updateItem(Long id, ItemDTO itemDTO) {
-        return new ResponseEntity<>(itemService.update(id, itemDTO), HttpStatus.OK);
+    public ResponseEntity<ItemDTO> getItemById(Long id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(toETag(itemService.findVersion(id)))) {
+            return null;
+        }
+
+        ItemDTO item = itemService.findById(id);
+        return ResponseEntity.status(HttpStatus.FOUND).eTag(toETag(item.getVersion())).body(item);
+    }
+
+    @Override
+    public ResponseEntity<ItemDTO> updateItem(Long id, ItemDTO itemDTO, String ifMatch) {
+        // If-Match carries the version the client last read, the update only succeeds against exactly that version
+        if (ifMatch != null && !ifMatch.isBlank() && !"*".equals(ifMatch.trim())) {
+            itemDTO.setVersion(parseETag(ifMatch));
+        }
+
+        ItemDTO updatedItem = itemService.update(id, itemDTO);
+        return ResponseEntity.ok().eTag(toETag(updatedItem.getVersion())).body(updatedItem);
     }
 
     @Override
@@ -43,11 +174,79 @@ public class ItemControllerImpl implements ItemController {
     }
 
     @Override
-    public ResponseEntity<List<ItemDTO>> processItems() {
+    public ResponseEntity<ProcessingJobDTO> processItems() {
+        // The processing runs in the background, the client gets the job id right away and polls the job
+        ProcessingJob job = processingJobRegistry.create();
+        start(job, itemService::processItemsAsync);
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/items/process/" + job.getId()))
+                .body(processingJobRegistry.describe(job, 0, 0));
+    }
+
+    @Override
+    public ResponseEntity<ProcessingJobDTO> retryFailedItems() {
+        ProcessingJob job = processingJobRegistry.create();
+        start(job, itemService::retryFailedItemsAsync);
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/items/process/" + job.getId()))
+                .body(processingJobRegistry.describe(job, 0, 0));
+    }
+
+    @Override
+    public ResponseEntity<ProcessingJobDTO> getProcessingJob(UUID jobId, long offset, int limit) {
+        if (offset < 0 || limit < 0 || limit > MAX_PROCESSED_IDS_PAGE) {
+            throw new IllegalArgumentException("Offset must be positive and limit between 0 and " + MAX_PROCESSED_IDS_PAGE + "!");
+        }
+
+        ProcessingJob job = processingJobRegistry.get(jobId);
+        return new ResponseEntity<>(processingJobRegistry.describe(job, offset, limit), HttpStatus.OK);
+    }
+
+    // The progress is pushed instead of polled; the request thread is released right away, the events are written later
+    @Override
+    public ResponseEntity<SseEmitter> streamProcessingJob(UUID jobId, Long lastEventId) {
+        if (lastEventId != null && lastEventId < 0) {
+            throw new IllegalArgumentException("Last-Event-ID must be a positive offset!");
+        }
+
+        ProcessingJob job = processingJobRegistry.get(jobId);
+        return ResponseEntity.ok(processingEventStream.subscribe(job, lastEventId == null ? 0 : lastEventId));
+    }
+
+    // A full processing executor rejects the job right away (503), it is never run on the request thread
+    private static void start(ProcessingJob job, Consumer<ProcessingJob> submit) {
+        try {
+            submit.accept(job);
+        } catch (TaskRejectedException e) {
+            job.fail("The processing executor is busy, the job was not started!");
+            throw e;
+        }
+    }
+
+    // The quoted version: the strong entity tag of an item. getAllItems sends the version of the collection as a weak tag (W/ prefix)
+    private static String toETag(Object version) {
+        return "\"" + version + "\"";
+    }
+
+    private static Long parseETag(String eTag) {
+        String value = eTag.trim();
+        if (value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")) {
+            throw new IllegalArgumentException("If-Match must be a single entity tag like \"3\"!");
+        }
+        try {
+            return Long.valueOf(value.substring(1, value.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match must be a single entity tag like \"3\"!");
+        }
+    }
+
+    private static ItemDTO readItem(ObjectReader reader, String line) {
         try {
-            return new ResponseEntity<>(itemService.processItemsAsync().get(), HttpStatus.OK);
-        } catch (ExecutionException | InterruptedException e) {
-            throw new RuntimeException("Error occurred while processing items asynchronously: " + e.getMessage(), e);
+            return reader.readValue(line);
+        } catch (IOException e) {
+            return null;
         }
     }
 }
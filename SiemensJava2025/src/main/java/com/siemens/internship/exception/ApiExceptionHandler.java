@@ -5,6 +5,7 @@ import java.util.concurrent.ExecutionException;
 import org.apache.coyote.BadRequestException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -30,6 +31,17 @@ public class ApiExceptionHandler extends ResponseEntityExceptionHandler {
         return getResponseEntity(exception, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(VersionConflictException.class)
+    protected ResponseEntity<ApiException> handleConflictException(Exception exception) {
+        return getResponseEntity(exception, HttpStatus.CONFLICT);
+    }
+
+    // A processing job that the processing executor could not queue
+    @ExceptionHandler(TaskRejectedException.class)
+    protected ResponseEntity<ApiException> handleServiceUnavailableException(Exception exception) {
+        return getResponseEntity(exception, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(EmailAlreadyExistsException.class)
     protected ResponseEntity<ApiException> handleInternalServerError(Exception exception) {
         return getResponseEntity(exception, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -0,0 +1,77 @@
+package com.siemens.internship.mapper;
+
+import com.siemens.internship.controller.dto.ItemDTO;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+// Plain field-by-field copies between Item and ItemDTO, no reflection and no intermediate objects.
+// Not timed on its own: the conversions are part of the ItemService calls (items.service)
+@Component
+public class ItemMapper {
+
+    public Item toItem(ItemDTO itemDTO) {
+        if (itemDTO == null) {
+            return null;
+        }
+
+        Item item = new Item();
+        item.setId(itemDTO.getId());
+        item.setName(itemDTO.getName());
+        item.setDescription(itemDTO.getDescription());
+        item.setStatus(itemDTO.getStatus() == null ? null : ItemStatus.fromName(itemDTO.getStatus()));
+        item.setEmail(itemDTO.getEmail());
+        return item;
+    }
+
+    public ItemDTO toItemDTO(Item item) {
+        if (item == null) {
+            return null;
+        }
+
+        ItemDTO itemDTO = new ItemDTO();
+        itemDTO.setId(item.getId());
+        itemDTO.setName(item.getName());
+        itemDTO.setDescription(item.getDescription());
+        itemDTO.setStatus(item.getStatus() == null ? null : item.getStatus().name());
+        itemDTO.setEmail(item.getEmail());
+        itemDTO.setVersion(item.getVersion());
+        return itemDTO;
+    }
+
+    // The list is sized once for the whole chunk
+    public List<ItemDTO> toItemDTOs(Collection<Item> items) {
+        List<ItemDTO> itemDTOs = new ArrayList<>(items.size());
+        items.forEach(item -> itemDTOs.add(toItemDTO(item)));
+        return itemDTOs;
+    }
+
+    // Cached DTOs are handed out as copies, callers are free to modify what they get
+    public ItemDTO copy(ItemDTO source) {
+        if (source == null) {
+            return null;
+        }
+
+        return new ItemDTO(source.getId(), source.getName(), source.getDescription(), source.getStatus(), source.getEmail(),
+                source.getVersion());
+    }
+
+    // Partial update: only the fields the client sent are changed, the version is left to Hibernate
+    public void applyChanges(ItemDTO source, Item target) {
+        if (source.getName() != null) {
+            target.setName(source.getName());
+        }
+        if (source.getDescription() != null) {
+            target.setDescription(source.getDescription());
+        }
+        if (source.getStatus() != null) {
+            target.setStatus(ItemStatus.fromName(source.getStatus()));
+        }
+        if (source.getEmail() != null) {
+            target.setEmail(source.getEmail());
+        }
+    }
+}
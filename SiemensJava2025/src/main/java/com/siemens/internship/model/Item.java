@@ -1,19 +1,41 @@
 package com.siemens.internship.model;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity
-@Table
+@Table(
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_item_email", columnNames = "email"),
+                // Emails are unique regardless of case
+                @UniqueConstraint(name = "uk_item_email_key", columnNames = "email_key")
+        },
+        // Serves the keyset scan over the unprocessed items (status = ? AND id > ? ORDER BY id)
+        indexes = @Index(name = "ix_item_status_id", columnList = "status, id")
+)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Item.CACHE_REGION)
+@NaturalIdCache(region = Item.NATURAL_ID_CACHE_REGION)
+// An update only sets the columns that changed (and the version)
+@DynamicUpdate
 @Getter
 @Setter
 @AllArgsConstructor
@@ -21,8 +43,13 @@ import lombok.Setter;
 @Builder
 public class Item {
 
+    public static final String CACHE_REGION = "item";
+    public static final String NATURAL_ID_CACHE_REGION = "item-by-email";
+
+    // A pooled sequence (50 ids per round trip) instead of IDENTITY, so Hibernate can batch the inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq")
+    @SequenceGenerator(name = "item_seq", sequenceName = "item_seq", allocationSize = 50)
     @Column(
             name = "id",
             updatable = false
@@ -43,17 +70,37 @@ public class Item {
     )
     private String description;
 
+    @Convert(converter = ItemStatusConverter.class)
     @Column(
             name = "status",
-            nullable = false,
-            columnDefinition = "TEXT"
+            nullable = false
     )
-    private String status;
+    private ItemStatus status;
 
+    // Mutable natural id: lookups by email resolve to the id through the natural-id cache
+    @NaturalId(mutable = true)
     @Column(
             name = "email",
             nullable = false,
-            columnDefinition = "TEXT"
+            length = 320
     )
     private String email;
-}
\ No newline at end of file
+
+    // The email as EmailRegistry.normalize writes it, computed by the database (also for rows inserted with plain SQL).
+    // Only read: the value of an entity is not refreshed when its email changes
+    @Column(
+            name = "email_key",
+            insertable = false,
+            updatable = false,
+            columnDefinition = "VARCHAR(320) GENERATED ALWAYS AS (LOWER(TRIM(email)))"
+    )
+    private String emailKey;
+
+    // Optimistic locking: every update runs as UPDATE ... WHERE id = ? AND version = ?, a concurrent write makes it fail
+    @Version
+    @Column(
+            name = "version",
+            nullable = false
+    )
+    private Long version;
+}
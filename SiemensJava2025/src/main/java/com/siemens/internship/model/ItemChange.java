@@ -0,0 +1,94 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// One row of the item outbox, appended in the same transaction as the item write it describes.
+// The position, given after the commit (ItemChangeLog), is the cursor consumers tail the change stream with
+@Entity
+@Table(
+        name = "item_change",
+        indexes = {
+                @Index(name = "ix_item_change_position", columnList = "position", unique = true),
+                @Index(name = "ix_item_change_job_position", columnList = "job_id, position")
+        }
+)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ItemChange {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        PROCESSED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_change_seq")
+    @SequenceGenerator(name = "item_change_seq", sequenceName = "item_change_seq", allocationSize = 50)
+    @Column(
+            name = "id",
+            updatable = false
+    )
+    private Long id;
+
+    // Null until the change is published
+    @Column(name = "position")
+    private Long position;
+
+    @Column(
+            name = "item_id",
+            nullable = false,
+            updatable = false
+    )
+    private Long itemId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(
+            name = "type",
+            nullable = false,
+            updatable = false,
+            length = 16
+    )
+    private Type type;
+
+    // Version of the item after the change (the last one for a deletion)
+    @Column(
+            name = "item_version",
+            updatable = false
+    )
+    private Long itemVersion;
+
+    @Column(
+            name = "changed_at",
+            nullable = false,
+            updatable = false
+    )
+    private Instant changedAt;
+
+    // The processing job that wrote a PROCESSED change, its processed ids are read from here
+    @Column(
+            name = "job_id",
+            updatable = false
+    )
+    private UUID jobId;
+}
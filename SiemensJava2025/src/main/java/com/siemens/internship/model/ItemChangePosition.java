@@ -0,0 +1,35 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// The single row holding the last position given to an item change. Its lock serializes the publishing of all instances
+@Entity
+@Table(name = "item_change_position")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemChangePosition {
+
+    public static final long ID = 1L;
+
+    @Id
+    @Column(
+            name = "id",
+            updatable = false
+    )
+    private Long id;
+
+    @Column(
+            name = "last_position",
+            nullable = false
+    )
+    private Long lastPosition;
+}
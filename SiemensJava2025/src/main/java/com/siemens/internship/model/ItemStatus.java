@@ -0,0 +1,56 @@
+package com.siemens.internship.model;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+// Stored as a SMALLINT code (ItemStatusConverter), so the codes must never change; the API keeps using the names
+public enum ItemStatus {
+    NEW((short) 0),
+    PROCESSED((short) 1);
+
+    private static final String NAMES = Arrays.stream(values())
+            .map(Enum::name)
+            .collect(Collectors.joining(", "));
+
+    private final short code;
+
+    ItemStatus(short code) {
+        this.code = code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public static ItemStatus fromCode(short code) {
+        for (ItemStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown item status code: " + code);
+    }
+
+    // Case-insensitive, surrounding whitespace is ignored
+    public static ItemStatus fromName(String name) {
+        if (name != null) {
+            String normalized = name.trim().toUpperCase(Locale.ROOT);
+            for (ItemStatus status : values()) {
+                if (status.name().equals(normalized)) {
+                    return status;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Status must be one of " + NAMES + "!");
+    }
+
+    public static boolean isValid(String name) {
+        try {
+            fromName(name);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter
+public class ItemStatusConverter implements AttributeConverter<ItemStatus, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(ItemStatus status) {
+        return status == null ? null : status.getCode();
+    }
+
+    @Override
+    public ItemStatus convertToEntityAttribute(Short code) {
+        return code == null ? null : ItemStatus.fromCode(code);
+    }
+}
@@ -0,0 +1,51 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// An item the processing pipeline could not write, even alone and after the retries. It stays here until a retry run
+// (POST /api/items/process/retry-failed) writes it
+@Entity
+@Table(name = "processing_dead_letter")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessingDeadLetter {
+
+    public static final int MAX_CAUSE_LENGTH = 1000;
+
+    @Id
+    @Column(
+            name = "item_id",
+            updatable = false
+    )
+    private Long itemId;
+
+    @Column(
+            name = "cause",
+            nullable = false,
+            length = MAX_CAUSE_LENGTH
+    )
+    private String cause;
+
+    // Runs that failed on this item
+    @Column(
+            name = "attempts",
+            nullable = false
+    )
+    private int attempts;
+
+    @Column(
+            name = "failed_at",
+            nullable = false
+    )
+    private Instant failedAt;
+}
@@ -0,0 +1,50 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Claim of one range of item ids by a processing node: the node, until when the claim holds, the last id whose update is
+// committed and when the range was completed (null while it is being processed)
+@Entity
+@Table(name = "processing_lease")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessingLease {
+
+    @Id
+    @Column(
+            name = "range_start",
+            updatable = false
+    )
+    private Long rangeStart;
+
+    @Column(
+            name = "owner",
+            length = 64
+    )
+    private String owner;
+
+    @Column(
+            name = "expires_at",
+            nullable = false
+    )
+    private Instant expiresAt;
+
+    @Column(
+            name = "last_id",
+            nullable = false
+    )
+    private Long lastId;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+}
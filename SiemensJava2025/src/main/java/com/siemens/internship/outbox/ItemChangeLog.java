@@ -0,0 +1,101 @@
+package com.siemens.internship.outbox;
+
+import com.siemens.internship.model.ItemChange;
+import com.siemens.internship.model.ItemChangePosition;
+import com.siemens.internship.repository.ItemChangePositionRepository;
+import com.siemens.internship.repository.ItemChangeRepository;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Transactional outbox of the item writes: a change is only ever appended inside the transaction of the write itself,
+// so it is committed (or rolled back) together with it.
+// The ids come from a pooled sequence before the commit, on every instance, so ids are not committed in order and cannot be
+// the cursor. A committed change is given its position in the stream instead: publish() numbers the changes without one,
+// holding the lock of the item_change_position row until its commit. The publishers of all instances run one after the
+// other, so a change committed after a consumer read the stream always gets a larger position than the ones it has seen
+@Component
+public class ItemChangeLog {
+
+    // Changes numbered per publishing transaction, at least one page of the change stream
+    static final int PUBLISH_BATCH_SIZE = 1000;
+
+    @Autowired
+    private ItemChangeRepository itemChangeRepository;
+
+    @Autowired
+    private ItemChangePositionRepository positionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long itemId, ItemChange.Type type, Long itemVersion) {
+        itemChangeRepository.save(new ItemChange(null, null, itemId, type, itemVersion, Instant.now(), null));
+    }
+
+    // One PROCESSED change per item (id -> version after the change), written with the JDBC batches of the surrounding transaction
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordProcessed(UUID jobId, Map<Long, Long> itemVersions) {
+        Instant changedAt = Instant.now();
+        itemChangeRepository.saveAll(itemVersions.entrySet().stream()
+                .map(item -> new ItemChange(null, null, item.getKey(), ItemChange.Type.PROCESSED, item.getValue(), changedAt, jobId))
+                .toList());
+    }
+
+    public List<ItemChange> findAfter(long cursor, int limit) {
+        publish();
+        return itemChangeRepository.findChanges(cursor, Limit.of(limit));
+    }
+
+    // In the order of their positions: the ids committed later come after every page read so far
+    public List<Long> findProcessedIds(UUID jobId, long offset, int limit) {
+        if (limit == 0) {
+            return List.of();
+        }
+        publish();
+        return itemChangeRepository.findItemIdsByJobId(jobId, offset, limit);
+    }
+
+    // Every change up to the last position is committed, the ones committed later get larger positions
+    public long lastPosition() {
+        publish();
+        return positionRepository.findById(ItemChangePosition.ID)
+                .map(ItemChangePosition::getLastPosition)
+                .orElse(0L);
+    }
+
+    // Only committed changes are read (read committed), in the order of their ids; positions continue after the last one.
+    // The lock is only taken when there is something to number
+    void publish() {
+        if (!itemChangeRepository.existsByPositionIsNull()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                ItemChangePosition position = positionRepository.findForUpdate(ItemChangePosition.ID)
+                        .orElseGet(() -> new ItemChangePosition(ItemChangePosition.ID, 0L));
+                List<ItemChange> changes = itemChangeRepository.findUnpublished(Limit.of(PUBLISH_BATCH_SIZE));
+                if (changes.isEmpty()) {
+                    return;
+                }
+                long lastPosition = position.getLastPosition();
+                for (ItemChange change : changes) {
+                    change.setPosition(++lastPosition);
+                }
+                position.setLastPosition(lastPosition);
+                positionRepository.save(position);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // The very first publishers of two instances both created the position row, the other one published
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.siemens.internship.processing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// AIMD limits of the pipeline writes, driven by the commit latency of the write batches instead of fixed sizes:
+// - how many batches are committed at the same time, from 1 up to items.processing.adaptive.max-concurrency
+// - how many ids a batch holds, starting at items.processing.write-batch-size, between the minimum and the maximum batch size
+// After every window of commits, the p99 latency of the window is compared with the target. Above it, both limits are halved.
+// Otherwise the batch size grows by the minimum batch size, and the concurrency by one if the writer used all of it.
+// A failed commit (e.g. no connection within the pool timeout) counts with the time it took
+@Component
+public class AdaptiveWriteLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveWriteLimiter.class);
+
+    public static final String CONCURRENCY_GAUGE = "items.processing.limit.concurrency";
+    public static final String BATCH_SIZE_GAUGE = "items.processing.limit.batch-size";
+
+    private final long latencyTargetNanos;
+
+    private final int maxConcurrency;
+
+    private final int minBatchSize;
+
+    private final int maxBatchSize;
+
+    // Latencies of the current window
+    private final long[] latencies;
+
+    private int samples;
+
+    private int concurrency = 1;
+
+    private int batchSize;
+
+    private int inFlight;
+
+    // Whether the writer reached the concurrency limit during the current window
+    private boolean saturated;
+
+    public AdaptiveWriteLimiter(@Value("${items.processing.write-batch-size:1000}") int initialBatchSize,
+                                @Value("${items.processing.adaptive.min-batch-size:100}") int minBatchSize,
+                                @Value("${items.processing.adaptive.max-batch-size:5000}") int maxBatchSize,
+                                @Value("${items.processing.adaptive.max-concurrency:4}") int maxConcurrency,
+                                @Value("${items.processing.adaptive.latency-target:250ms}") Duration latencyTarget,
+                                @Value("${items.processing.adaptive.window:20}") int window,
+                                MeterRegistry meterRegistry) {
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.maxConcurrency = maxConcurrency;
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.latencies = new long[window];
+        this.batchSize = Math.max(minBatchSize, Math.min(maxBatchSize, initialBatchSize));
+
+        Gauge.builder(CONCURRENCY_GAUGE, this, AdaptiveWriteLimiter::getConcurrency)
+                .description("Write batches the processing pipeline commits at the same time")
+                .register(meterRegistry);
+        Gauge.builder(BATCH_SIZE_GAUGE, this, AdaptiveWriteLimiter::getBatchSize)
+                .description("Ids per write batch of the processing pipeline")
+                .register(meterRegistry);
+    }
+
+    public synchronized int getConcurrency() {
+        return concurrency;
+    }
+
+    public synchronized int getBatchSize() {
+        return batchSize;
+    }
+
+    // Waits until one more batch may be committed, false when the timeout elapsed first
+    public synchronized boolean tryAcquire(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (inFlight >= concurrency) {
+            saturated = true;
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        inFlight++;
+        saturated |= inFlight == concurrency;
+        return true;
+    }
+
+    public synchronized void release() {
+        inFlight--;
+        notifyAll();
+    }
+
+    public synchronized void record(long latencyNanos) {
+        latencies[samples++] = latencyNanos;
+        if (samples < latencies.length) {
+            return;
+        }
+
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        long p99 = sorted[(int) Math.ceil(sorted.length * 0.99) - 1];
+        if (p99 > latencyTargetNanos) {
+            concurrency = Math.max(1, concurrency / 2);
+            batchSize = Math.max(minBatchSize, batchSize / 2);
+            logger.info("Write p99 of {} ms is above the target, backing off to {} concurrent batches of {} items",
+                    TimeUnit.NANOSECONDS.toMillis(p99), concurrency, batchSize);
+        } else {
+            if (saturated) {
+                concurrency = Math.min(maxConcurrency, concurrency + 1);
+            }
+            batchSize = Math.min(maxBatchSize, batchSize + minBatchSize);
+        }
+        samples = 0;
+        saturated = inFlight >= concurrency;
+        notifyAll();
+    }
+}
@@ -0,0 +1,612 @@
+package com.siemens.internship.processing;
+
+import com.siemens.internship.cache.ItemCache;
+import com.siemens.internship.config.ExecutorConfiguration;
+import com.siemens.internship.config.InteractiveLoad;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.model.ProcessingDeadLetter;
+import com.siemens.internship.outbox.ItemChangeLog;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.repository.ProcessingDeadLetterRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// processItemsAsync as a staged pipeline: reader -> transformer -> writer, connected by bounded queues.
+// A stage blocks while the next one is behind, so memory use depends on the queue capacity and chunk sizes, not on the table size.
+// The reader claims the items range by range (ProcessingLeases), so the nodes that share the database split the work.
+// Every write batch commits the status update together with the lease of its range (the id up to which everything is written).
+// A range whose node did not get to its end (crash, restart, lost database) is resumed right after that id once its lease expired.
+// The writer commits several batches at the same time, as many and as large as the AdaptiveWriteLimiter allows, and holds a
+// batch back while the request threads are busy (InteractiveLoad).
+// A failed batch is retried with exponential backoff. A batch that still fails is written item by item, the items that fail
+// alone are dead-lettered (processing_dead_letter) and the run goes on; retryFailed runs over the dead-lettered items only.
+@Component
+public class ItemProcessingPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(ItemProcessingPipeline.class);
+
+    public static final String JOB_TIMER = "items.processing.job";
+    public static final String THROUGHPUT_SUMMARY = "items.processing.throughput";
+    public static final String ERRORS_COUNTER = "items.processing.errors";
+    public static final String YIELD_TIMER = "items.processing.yield";
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private static final long[] NO_IDS = new long[0];
+
+    private static final ItemChunk END_OF_ITEMS = new ItemChunk(NO_IDS, null);
+
+    private static final StatusTransition END_OF_TRANSITIONS = new StatusTransition(NO_IDS, null, null);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ProcessingLeases leases;
+
+    @Autowired
+    private ProcessingDeadLetterRepository deadLetterRepository;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private ItemChangeLog itemChangeLog;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier(ExecutorConfiguration.PROCESSING_EXECUTOR)
+    private Executor executor;
+
+    @Autowired
+    private AdaptiveWriteLimiter writeLimiter;
+
+    @Autowired
+    private InteractiveLoad interactiveLoad;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${items.processing.read-size:500}")
+    private int readSize;
+
+    @Value("${items.processing.queue-capacity:4}")
+    private int queueCapacity;
+
+    @Value("${items.processing.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${items.processing.retry.initial-backoff:100ms}")
+    private Duration initialBackoff;
+
+    @Value("${items.processing.retry.max-backoff:2s}")
+    private Duration maxBackoff;
+
+    // One run at a time per node, so a lease this node did not complete was left behind by an earlier run
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    public ProcessingJob run(ProcessingJob job) {
+        return run(job, Source.NEW_ITEMS);
+    }
+
+    // Only the dead-lettered items, without leases: a retry is started on one node
+    public ProcessingJob retryFailed(ProcessingJob job) {
+        return run(job, Source.DEAD_LETTERS);
+    }
+
+    private ProcessingJob run(ProcessingJob job, Source source) {
+        if (!runLock.tryLock()) {
+            job.fail("Another processing job is running!");
+            return job;
+        }
+        try {
+            execute(job, source);
+        } finally {
+            runLock.unlock();
+        }
+        recordMetrics(job);
+        return job;
+    }
+
+    private void execute(ProcessingJob job, Source source) {
+        try {
+            if (source == Source.NEW_ITEMS) {
+                // Items that are already processed are only counted, they are never read
+                long total = itemRepository.count();
+                job.setTotal(total);
+                job.recordSkipped(total - itemRepository.countByStatus(ItemStatus.NEW));
+            } else {
+                job.setTotal(deadLetterRepository.count());
+            }
+        } catch (RuntimeException e) {
+            job.fail(e.getMessage());
+            return;
+        }
+
+        Run run = new Run(job, source, queueCapacity);
+        CompletableFuture<Void> transformer = CompletableFuture.runAsync(() -> transform(run), executor);
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> write(run), executor);
+        read(run);
+        // The stages report their own failures on the run
+        CompletableFuture.allOf(transformer, writer).exceptionally(ex -> null).join();
+
+        String failure = run.failure.get();
+        if (failure != null) {
+            logger.error("Processing job {} stopped, its ranges are resumed once their leases expired: {}", job.getId(), failure);
+            job.fail(failure);
+            return;
+        }
+        job.complete();
+    }
+
+    // Reader: the unprocessed (or dead-lettered) ids in id order, one keyset query per chunk
+    private void read(Run run) {
+        try {
+            if (run.source == Source.NEW_ITEMS) {
+                readNewItems(run);
+            } else {
+                readDeadLetters(run);
+            }
+        } catch (RuntimeException e) {
+            run.stop("Reading items failed: " + e.getMessage());
+        }
+    }
+
+    // Claims the range of the next unprocessed id and reads the range. A range that another node holds, or that was
+    // completed after this run started, is skipped
+    private void readNewItems(Run run) {
+        long lastId = 0L;
+        while (!run.isStopped()) {
+            List<Long> next = itemRepository.findIdsByStatusAndIdGreaterThan(ItemStatus.NEW, lastId, Limit.of(1));
+            if (next.isEmpty()) {
+                run.offer(run.readQueue, END_OF_ITEMS);
+                return;
+            }
+            Optional<ProcessingLeases.Lease> lease = leases.claim(next.get(0), run.job.getStartedAt());
+            if (lease.isPresent() && !readRange(run, lease.get())) {
+                return;
+            }
+            lastId = leases.lastIdOfRange(next.get(0));
+        }
+    }
+
+    // The range ends with a chunk without ids, the writer completes the lease once everything before it is written
+    private boolean readRange(Run run, ProcessingLeases.Lease lease) {
+        long lastId = lease.resumeAfterId();
+        while (!run.isStopped()) {
+            List<Long> itemIds = itemRepository.findIdsByStatusInRange(ItemStatus.NEW, lastId, lease.lastId(), Limit.of(readSize));
+            if (itemIds.isEmpty()) {
+                return run.offer(run.readQueue, new ItemChunk(NO_IDS, lease));
+            }
+            long[] chunk = itemIds.stream().mapToLong(Long::longValue).toArray();
+            if (!run.offer(run.readQueue, new ItemChunk(chunk, lease))) {
+                return false;
+            }
+            lastId = chunk[chunk.length - 1];
+        }
+        return false;
+    }
+
+    private void readDeadLetters(Run run) {
+        long lastId = 0L;
+        while (!run.isStopped()) {
+            List<Long> itemIds = deadLetterRepository.findItemIdsAfter(lastId, Limit.of(readSize));
+            if (itemIds.isEmpty()) {
+                run.offer(run.readQueue, END_OF_ITEMS);
+                return;
+            }
+            long[] chunk = itemIds.stream().mapToLong(Long::longValue).toArray();
+            if (!run.offer(run.readQueue, new ItemChunk(chunk, null))) {
+                return;
+            }
+            lastId = chunk[chunk.length - 1];
+        }
+    }
+
+    // Transformer: decides the new status of every read item, the end of a range is handed on as it is
+    private void transform(Run run) {
+        try {
+            ItemChunk chunk;
+            while ((chunk = run.poll(run.readQueue)) != null) {
+                if (chunk == END_OF_ITEMS) {
+                    run.offer(run.writeQueue, END_OF_TRANSITIONS);
+                    return;
+                }
+                ItemStatus status = chunk.itemIds().length == 0 ? null : ItemStatus.PROCESSED;
+                if (!run.offer(run.writeQueue, new StatusTransition(chunk.itemIds(), status, chunk.lease()))) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            run.stop("Transforming items failed: " + e.getMessage());
+        }
+    }
+
+    // Writer: collects whole read chunks until a batch holds the limiter's batch size, one UPDATE statement and one commit per
+    // batch. A batch never spans two ranges, it renews the lease of its range. The batches are committed on the executor, a range
+    // is completed once all of its batches are done
+    private void write(Run run) {
+        Batch batch = null;
+        try {
+            StatusTransition transition;
+            while ((transition = run.poll(run.writeQueue)) != null) {
+                if (transition == END_OF_TRANSITIONS) {
+                    if (batch != null) {
+                        submit(batch, run);
+                    }
+                    return;
+                }
+                boolean endOfRange = transition.itemIds().length == 0;
+                if (batch != null && (endOfRange || transition.status() != batch.status()
+                        || !Objects.equals(transition.lease(), batch.lease()))) {
+                    submit(batch, run);
+                    batch = null;
+                }
+                if (endOfRange) {
+                    run.awaitBatches();
+                    // A failed batch stopped the run, the range stays unfinished
+                    if (run.isStopped()) {
+                        return;
+                    }
+                }
+                // The rest of a range taken over by another node is left to it
+                if (transition.lease() != null && run.lostLeases.contains(transition.lease())) {
+                    continue;
+                }
+                if (endOfRange) {
+                    leases.complete(transition.lease());
+                    continue;
+                }
+                if (batch == null) {
+                    batch = new Batch(new ArrayList<>(writeLimiter.getBatchSize()), transition.status(), transition.lease());
+                }
+                Arrays.stream(transition.itemIds()).forEach(batch.itemIds()::add);
+                if (batch.itemIds().size() >= writeLimiter.getBatchSize()) {
+                    submit(batch, run);
+                    batch = null;
+                }
+            }
+        } catch (RuntimeException e) {
+            countError(e, "stopped");
+            run.job.recordFailed(batch == null ? 0 : batch.itemIds().size());
+            run.stop("Writing items failed: " + e.getMessage());
+        } finally {
+            run.awaitBatches();
+        }
+    }
+
+    // Commits the batch on the executor once the limiter lets one more batch in; a stopped run drops it
+    private void submit(Batch batch, Run run) {
+        yieldToRequests(run);
+        if (!run.acquire(writeLimiter)) {
+            return;
+        }
+        run.pendingFirstIds.add(batch.firstId());
+        try {
+            run.batches.add(CompletableFuture.runAsync(() -> {
+                try {
+                    writeBatch(batch, run);
+                } catch (RuntimeException e) {
+                    countError(e, "stopped");
+                    run.job.recordFailed(batch.itemIds().size());
+                    run.stop("Writing items failed: " + e.getMessage());
+                } finally {
+                    run.pendingFirstIds.remove(batch.firstId());
+                    writeLimiter.release();
+                }
+            }, executor));
+        } catch (RuntimeException e) {
+            run.pendingFirstIds.remove(batch.firstId());
+            writeLimiter.release();
+            throw e;
+        }
+    }
+
+    // Under interactive load the batch waits (at most the yield max-wait), the requests get the CPU and the database first
+    private void yieldToRequests(Run run) {
+        try {
+            long waitedNanos = interactiveLoad.yieldToRequests();
+            if (waitedNanos > 0) {
+                Timer.builder(YIELD_TIMER)
+                        .register(meterRegistry)
+                        .record(waitedNanos, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.stop("Processing was interrupted");
+        }
+    }
+
+    private void writeBatch(Batch batch, Run run) {
+        try {
+            writeBatchOrItems(batch, run);
+        } catch (LeaseLostException e) {
+            logger.warn("Processing job {} stops writing the items {}-{}, another node took them over", run.job.getId(),
+                    batch.lease().firstId(), batch.lease().lastId());
+            run.lostLeases.add(batch.lease());
+        }
+    }
+
+    private void writeBatchOrItems(Batch batch, Run run) {
+        List<Long> itemIds = batch.itemIds();
+        List<Long> changedIds;
+        try {
+            changedIds = withRetries(() -> commit(batch, itemIds, run));
+        } catch (LeaseLostException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw e;
+            }
+            logger.warn("Writing a batch of {} items failed, writing them one by one: {}", itemIds.size(), e.getMessage());
+            itemIds.forEach(itemId -> writeItem(batch, itemId, run));
+            return;
+        }
+        recordWritten(itemIds, changedIds, run);
+    }
+
+    // A failure of the dead-lettering itself (the database is gone) stops the run, the range is resumed after its last id
+    private void writeItem(Batch batch, Long itemId, Run run) {
+        List<Long> changedIds;
+        try {
+            changedIds = commit(batch, List.of(itemId), run);
+        } catch (LeaseLostException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            deadLetter(batch, itemId, e, run);
+            countError(e, "dead-lettered");
+            run.job.recordFailed(1);
+            return;
+        }
+        recordWritten(List.of(itemId), changedIds, run);
+    }
+
+    // Items deleted, or already given the status, between the read and the write were not changed by it: they are only counted
+    private void recordWritten(List<Long> itemIds, List<Long> changedIds, Run run) {
+        itemCache.evictAll(changedIds);
+        run.job.recordProcessed(changedIds.size());
+        run.job.recordSkipped(itemIds.size() - changedIds.size());
+    }
+
+    // The ids the batch changed. The latency of every attempt, failed or not, drives the limiter
+    private List<Long> commit(Batch batch, List<Long> itemIds, Run run) {
+        long startedAt = System.nanoTime();
+        Map<Long, Long> changedVersions = new LinkedHashMap<>();
+
+        // The lease, the outbox and the dead letters only move with committed updates. The lease comes last: batches of one range
+        // update their items at the same time and only queue on the lease row for their commit; a node that claims the range
+        // at the same moment waits for the row as well, and a batch whose lease it took over rolls back.
+        // A regular run reads dead-lettered items as well (they are still new), a success clears them in both kinds of runs.
+        // Only the items the update changed get an outbox row
+        try {
+            transactionTemplate.executeWithoutResult(transactionStatus -> {
+                changedVersions.putAll(itemRepository.updateStatusByIdIn(itemIds, batch.status()));
+                itemChangeLog.recordProcessed(run.job.getId(), changedVersions);
+                deadLetterRepository.deleteByItemIdIn(itemIds);
+                if (batch.lease() != null) {
+                    leases.renew(batch.lease(), run.writtenUpTo(batch, itemIds.get(itemIds.size() - 1)));
+                }
+            });
+        } finally {
+            writeLimiter.record(System.nanoTime() - startedAt);
+        }
+        return new ArrayList<>(changedVersions.keySet());
+    }
+
+    // The lease moves past a dead-lettered item, it is only written again by a retry run (or a later regular run)
+    private void deadLetter(Batch batch, Long itemId, RuntimeException cause, Run run) {
+        logger.warn("Item {} could not be processed and is dead-lettered: {}", itemId, cause.getMessage());
+        String description = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+
+        transactionTemplate.executeWithoutResult(transactionStatus -> {
+            ProcessingDeadLetter deadLetter = deadLetterRepository.findById(itemId)
+                    .orElseGet(() -> new ProcessingDeadLetter(itemId, null, 0, null));
+            deadLetter.setCause(description.length() > ProcessingDeadLetter.MAX_CAUSE_LENGTH
+                    ? description.substring(0, ProcessingDeadLetter.MAX_CAUSE_LENGTH)
+                    : description);
+            deadLetter.setAttempts(deadLetter.getAttempts() + 1);
+            deadLetter.setFailedAt(Instant.now());
+            if (batch.lease() != null) {
+                leases.renew(batch.lease(), run.writtenUpTo(batch, itemId));
+            }
+            deadLetterRepository.save(deadLetter);
+        });
+    }
+
+    // Exponential backoff between the attempts; a non-transient failure (e.g. a constraint) fails the same way again and a
+    // lost lease stays lost, so they are not retried
+    private <T> T withRetries(Supplier<T> action) {
+        Duration backoff = initialBackoff;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (NonTransientDataAccessException | LeaseLostException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                countError(e, "retried");
+                sleep(backoff);
+                backoff = backoff.multipliedBy(2).compareTo(maxBackoff) > 0 ? maxBackoff : backoff.multipliedBy(2);
+            }
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Processing was interrupted");
+        }
+    }
+
+    private void countError(RuntimeException e, String outcome) {
+        meterRegistry.counter(ERRORS_COUNTER, "exception", e.getClass().getSimpleName(), "outcome", outcome).increment();
+    }
+
+    // One observation per job, tagged with how it ended: its duration and the items it wrote per second
+    private void recordMetrics(ProcessingJob job) {
+        String status = job.getStatus().name();
+        Duration duration = Duration.between(job.getStartedAt(), job.getFinishedAt());
+
+        Timer.builder(JOB_TIMER)
+                .tag("status", status)
+                .register(meterRegistry)
+                .record(duration);
+        DistributionSummary.builder(THROUGHPUT_SUMMARY)
+                .baseUnit("items.per.second")
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(job.getProcessed().get() / Math.max(duration.toNanos() / 1e9, 1e-3));
+    }
+
+    private enum Source {
+        NEW_ITEMS,
+        DEAD_LETTERS
+    }
+
+    // Read ids of one range (no lease in a retry run); no ids mark the end of the range
+    private record ItemChunk(long[] itemIds, ProcessingLeases.Lease lease) {
+    }
+
+    private record StatusTransition(long[] itemIds, ItemStatus status, ProcessingLeases.Lease lease) {
+    }
+
+    // Ascending ids of one range
+    private record Batch(List<Long> itemIds, ItemStatus status, ProcessingLeases.Lease lease) {
+
+        private long firstId() {
+            return itemIds.get(0);
+        }
+    }
+
+    // Queues and failure of one run. Waiting stages check every POLL_TIMEOUT_MILLIS whether another stage gave up
+    private static final class Run {
+
+        private final ProcessingJob job;
+
+        private final Source source;
+
+        private final BlockingQueue<ItemChunk> readQueue;
+
+        private final BlockingQueue<StatusTransition> writeQueue;
+
+        private final AtomicReference<String> failure = new AtomicReference<>();
+
+        private final Set<ProcessingLeases.Lease> lostLeases = ConcurrentHashMap.newKeySet();
+
+        // First ids of the batches being committed, and their tasks (only used by the writer)
+        private final NavigableSet<Long> pendingFirstIds = new ConcurrentSkipListSet<>();
+
+        private final List<CompletableFuture<Void>> batches = new ArrayList<>();
+
+        private Run(ProcessingJob job, Source source, int queueCapacity) {
+            this.job = job;
+            this.source = source;
+            this.readQueue = new ArrayBlockingQueue<>(queueCapacity);
+            this.writeQueue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        private boolean isStopped() {
+            return failure.get() != null;
+        }
+
+        private void stop(String reason) {
+            failure.compareAndSet(null, reason);
+        }
+
+        // The batches are submitted in id order, so everything up to the given id of a batch is written unless an earlier
+        // batch is still pending: then only the ids before that batch are
+        private long writtenUpTo(Batch batch, long itemId) {
+            long firstPending = pendingFirstIds.first();
+            return firstPending < batch.firstId() ? firstPending - 1 : itemId;
+        }
+
+        private boolean acquire(AdaptiveWriteLimiter writeLimiter) {
+            try {
+                while (!isStopped()) {
+                    if (writeLimiter.tryAcquire(POLL_TIMEOUT_MILLIS)) {
+                        // A batch that failed stops the run before it lets the next one in
+                        if (!isStopped()) {
+                            return true;
+                        }
+                        writeLimiter.release();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop("Processing was interrupted");
+            }
+            return false;
+        }
+
+        private void awaitBatches() {
+            batches.forEach(CompletableFuture::join);
+            batches.clear();
+        }
+
+        private <T> boolean offer(BlockingQueue<T> queue, T element) {
+            try {
+                while (!isStopped()) {
+                    if (queue.offer(element, POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop("Processing was interrupted");
+            }
+            return false;
+        }
+
+        private <T> T poll(BlockingQueue<T> queue) {
+            try {
+                while (!isStopped()) {
+                    T element = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (element != null) {
+                        return element;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop("Processing was interrupted");
+            }
+            return null;
+        }
+    }
+}
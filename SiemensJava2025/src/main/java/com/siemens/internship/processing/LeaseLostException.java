@@ -0,0 +1,8 @@
+package com.siemens.internship.processing;
+
+// The lease of a range expired and another node claimed the range, so this node must not write its items any more
+class LeaseLostException extends RuntimeException {
+    LeaseLostException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,119 @@
+package com.siemens.internship.processing;
+
+import com.siemens.internship.config.ExecutorConfiguration;
+import com.siemens.internship.controller.dto.ProcessingJobDTO;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Server-Sent Events of a processing job: "progress" events while it runs, then one "completed" or "failed" event.
+// Every event is a ProcessingJobDTO with the ids processed since the previous event (at most MAX_IDS_PER_EVENT, the rest
+// follows right away), its event id is the offset after those ids, so a client reconnecting with Last-Event-ID resumes there.
+// The job only signals its progress; the events are written by a task on the events executor, never by the pipeline, a
+// processing task or a request thread. Signals are coalesced: one task per subscriber at a time, at most one progress event per interval,
+// each carrying the job state at the moment it is written
+@Component
+public class ProcessingEventStream {
+
+    public static final int MAX_IDS_PER_EVENT = 1000;
+
+    private static final long EMITTER_TIMEOUT_MILLIS = Duration.ofMinutes(30).toMillis();
+
+    @Autowired
+    @Qualifier(ExecutorConfiguration.EVENTS_EXECUTOR)
+    private Executor executor;
+
+    @Autowired
+    private ProcessingJobRegistry processingJobRegistry;
+
+    @Value("${items.processing.events.interval:200ms}")
+    private Duration interval;
+
+    public SseEmitter subscribe(ProcessingJob job, long offset) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        Subscription subscription = new Subscription(job, emitter, offset);
+
+        Runnable listener = subscription::signal;
+        job.addListener(listener);
+        emitter.onCompletion(() -> job.removeListener(listener));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> emitter.complete());
+        // The current state right away, a job that is already finished is sent completely
+        subscription.schedule();
+        return emitter;
+    }
+
+    private final class Subscription {
+
+        private final ProcessingJob job;
+
+        private final SseEmitter emitter;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private long offset;
+
+        private volatile long lastSentNanos = System.nanoTime();
+
+        private boolean closed;
+
+        private Subscription(ProcessingJob job, SseEmitter emitter, long offset) {
+            this.job = job;
+            this.emitter = emitter;
+            this.offset = offset;
+        }
+
+        // Called by the job on the pipeline thread: only decides whether a task is needed
+        private void signal() {
+            if (!job.isFinished() && System.nanoTime() - lastSentNanos < interval.toNanos()) {
+                return;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this::flush);
+            }
+        }
+
+        private synchronized void flush() {
+            scheduled.set(false);
+            if (closed) {
+                return;
+            }
+            try {
+                ProcessingJobDTO event;
+                do {
+                    event = processingJobRegistry.describe(job, offset, MAX_IDS_PER_EVENT);
+                    offset += event.getProcessedIds().size();
+                    send(event);
+                } while (event.getNextOffset() != null && event.getProcessedIds().size() == MAX_IDS_PER_EVENT);
+
+                lastSentNanos = System.nanoTime();
+                if (event.getNextOffset() == null) {
+                    closed = true;
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away
+                closed = true;
+                emitter.completeWithError(e);
+            }
+        }
+
+        private void send(ProcessingJobDTO event) throws IOException {
+            String name = event.getNextOffset() != null ? "progress" : event.getStatus().name().toLowerCase();
+            emitter.send(SseEmitter.event()
+                    .name(name)
+                    .id(String.valueOf(offset))
+                    .data(event));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.siemens.internship.processing;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+// State of one processItemsAsync run. Only the counters are kept in memory: the processed ids are in the outbox, every
+// PROCESSED change carries the id of its job (ItemChangeLog.findProcessedIds)
+@Getter
+public class ProcessingJob {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final UUID id = UUID.randomUUID();
+
+    private final Instant startedAt = Instant.now();
+
+    private volatile Instant finishedAt;
+
+    private volatile Status status = Status.RUNNING;
+
+    private volatile String error;
+
+    private volatile long total;
+
+    private final AtomicLong processed = new AtomicLong();
+
+    private final AtomicLong skipped = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    // Called on the recording thread after every change of the progress, so a listener must hand off anything slow
+    @Getter(AccessLevel.NONE)
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public void recordProcessed(long count) {
+        if (count == 0) {
+            return;
+        }
+        processed.addAndGet(count);
+        notifyListeners();
+    }
+
+    public void recordSkipped(long count) {
+        skipped.addAndGet(count);
+    }
+
+    public void recordFailed(long count) {
+        failed.addAndGet(count);
+        notifyListeners();
+    }
+
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    public void complete() {
+        finish(Status.COMPLETED, null);
+    }
+
+    public void fail(String error) {
+        finish(Status.FAILED, error);
+    }
+
+    public boolean isFinished() {
+        return status != Status.RUNNING;
+    }
+
+    private void finish(Status status, String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.status = status;
+        notifyListeners();
+    }
+
+    private void notifyListeners() {
+        listeners.forEach(Runnable::run);
+    }
+}
@@ -0,0 +1,57 @@
+package com.siemens.internship.processing;
+
+import com.siemens.internship.controller.dto.ProcessingJobDTO;
+import com.siemens.internship.exception.ObjectNotFoundException;
+import com.siemens.internship.outbox.ItemChangeLog;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Keeps the processing jobs of this instance, finished jobs are dropped (oldest first) above MAX_JOBS
+@Component
+public class ProcessingJobRegistry {
+
+    private static final int MAX_JOBS = 100;
+
+    private final Map<UUID, ProcessingJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ItemChangeLog itemChangeLog;
+
+    public ProcessingJob create() {
+        evictFinishedJobs();
+        ProcessingJob job = new ProcessingJob();
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    public ProcessingJob get(UUID jobId) {
+        ProcessingJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ObjectNotFoundException("Processing job with id: " + jobId + " not found!");
+        }
+        return job;
+    }
+
+    // The job with one page of its processed ids, read from the outbox after the status
+    public ProcessingJobDTO describe(ProcessingJob job, long offset, int limit) {
+        boolean finished = job.isFinished();
+        List<Long> processedIds = itemChangeLog.findProcessedIds(job.getId(), offset, limit);
+        return ProcessingJobDTO.from(job, finished, offset, processedIds);
+    }
+
+    private void evictFinishedJobs() {
+        if (jobs.size() < MAX_JOBS) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(ProcessingJob::isFinished)
+                .sorted(Comparator.comparing(ProcessingJob::getStartedAt))
+                .limit(jobs.size() - MAX_JOBS + 1L)
+                .forEach(job -> jobs.remove(job.getId()));
+    }
+}
@@ -0,0 +1,110 @@
+package com.siemens.internship.processing;
+
+import com.siemens.internship.model.ProcessingLease;
+import com.siemens.internship.repository.ProcessingLeaseRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Splits the processing over the nodes that share the database. The item ids are cut into ranges of
+// items.processing.lease.range-size ids; a node processes a range only while it holds its lease (processing_lease).
+// - A lease is renewed by every write batch of the range, in the transaction of the batch. A node whose lease expired and
+//   was claimed by another node can no longer renew it, so its batch rolls back instead of writing next to the new owner.
+// - The lease keeps the id up to which every item is committed: a node claiming an expired lease resumes right after it.
+// - A completed range is claimed again by the next run. A run skips the ranges completed after it started, by any node.
+// The decision is based on the clocks of the nodes, they are expected to be in sync far below the lease duration
+@Component
+public class ProcessingLeases {
+    private static final Logger logger = LoggerFactory.getLogger(ProcessingLeases.class);
+
+    @Autowired
+    private ProcessingLeaseRepository leaseRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${items.processing.lease.range-size:10000}")
+    private long rangeSize;
+
+    @Value("${items.processing.lease.duration:30s}")
+    private Duration duration;
+
+    // Random per start unless configured, so two application contexts never share an id
+    @Value("${items.processing.node-id:${random.uuid}}")
+    private String nodeId;
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long lastIdOfRange(long itemId) {
+        return itemId - Math.floorMod(itemId, rangeSize) + rangeSize - 1;
+    }
+
+    // The lease of the range that contains the item, empty when another node holds it or it was completed after the run started
+    public Optional<Lease> claim(long itemId, Instant runStartedAt) {
+        long rangeStart = itemId - Math.floorMod(itemId, rangeSize);
+        try {
+            return transactionTemplate.execute(status -> {
+                Instant now = Instant.now();
+                ProcessingLease lease = leaseRepository.findForUpdate(rangeStart)
+                        .orElseGet(() -> new ProcessingLease(rangeStart, null, now, rangeStart - 1, null));
+
+                long resumeAfterId;
+                if (lease.getCompletedAt() != null) {
+                    if (!lease.getCompletedAt().isBefore(runStartedAt)) {
+                        return Optional.empty();
+                    }
+                    resumeAfterId = rangeStart - 1;
+                } else if (lease.getOwner() == null || lease.getOwner().equals(nodeId) || !lease.getExpiresAt().isAfter(now)) {
+                    // New, expired, or left behind by an earlier run of this node (one run at a time per node)
+                    resumeAfterId = lease.getLastId();
+                    if (lease.getOwner() != null) {
+                        logger.info("Taking over the items {}-{} from node {} after item id {}",
+                                rangeStart, rangeStart + rangeSize - 1, lease.getOwner(), resumeAfterId);
+                    }
+                } else {
+                    return Optional.empty();
+                }
+
+                lease.setOwner(nodeId);
+                lease.setExpiresAt(now.plus(duration));
+                lease.setLastId(resumeAfterId);
+                lease.setCompletedAt(null);
+                leaseRepository.saveAndFlush(lease);
+                return Optional.of(new Lease(rangeStart, rangeStart + rangeSize - 1, resumeAfterId));
+            });
+        } catch (DataIntegrityViolationException | PessimisticLockingFailureException e) {
+            // Another node created or holds the lease at this moment
+            return Optional.empty();
+        }
+    }
+
+    // Part of the write transaction of the range: fails, and rolls the write back, when another node took the range over
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void renew(Lease lease, long lastId) {
+        if (leaseRepository.renew(lease.firstId(), nodeId, lastId, Instant.now().plus(duration)) == 0) {
+            throw new LeaseLostException("The lease of the items " + lease.firstId() + "-" + lease.lastId() + " was taken over");
+        }
+    }
+
+    public void complete(Lease lease) {
+        if (leaseRepository.complete(lease.firstId(), nodeId, Instant.now()) == 0) {
+            logger.warn("The lease of the items {}-{} was taken over before it was completed", lease.firstId(), lease.lastId());
+        }
+    }
+
+    // A claimed range: its first and last possible id, and the id after which the unprocessed items are read
+    public record Lease(long firstId, long lastId, long resumeAfterId) {
+    }
+}
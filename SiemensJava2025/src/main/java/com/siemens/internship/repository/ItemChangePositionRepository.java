@@ -0,0 +1,21 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.ItemChangePosition;
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@Transactional
+public interface ItemChangePositionRepository extends JpaRepository<ItemChangePosition, Long> {
+
+    // SELECT ... FOR UPDATE: one publisher at a time, across all instances
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM ItemChangePosition p WHERE p.id = :id")
+    Optional<ItemChangePosition> findForUpdate(@Param("id") Long id);
+}
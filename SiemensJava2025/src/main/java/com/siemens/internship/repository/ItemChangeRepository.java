@@ -0,0 +1,31 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.ItemChange;
+import jakarta.transaction.Transactional;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@Transactional
+public interface ItemChangeRepository extends JpaRepository<ItemChange, Long> {
+
+    // Keyset scan over the position index: the published changes after the consumer's cursor
+    @Query("SELECT c FROM ItemChange c WHERE c.position > :cursor ORDER BY c.position")
+    List<ItemChange> findChanges(@Param("cursor") Long cursor, Limit limit);
+
+    // Committed changes without a position yet, oldest first
+    @Query("SELECT c FROM ItemChange c WHERE c.position IS NULL ORDER BY c.id")
+    List<ItemChange> findUnpublished(Limit limit);
+
+    boolean existsByPositionIsNull();
+
+    // The published ids of one processing job over the (job_id, position) index, positions only grow so an offset stays valid
+    @Query("SELECT c.itemId FROM ItemChange c WHERE c.jobId = :jobId AND c.position IS NOT NULL ORDER BY c.position"
+            + " LIMIT :limit OFFSET :offset")
+    List<Long> findItemIdsByJobId(@Param("jobId") UUID jobId, @Param("offset") long offset, @Param("limit") int limit);
+}
@@ -1,18 +1,57 @@
 package com.siemens.internship.repository;
 
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 @Transactional
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
     @Query("SELECT id FROM Item")
     List<Long> findAllIds();
 
-    Optional<Item> findByEmail(String email);
+    // These look up normalized emails (EmailRegistry.normalize) through the unique index on email_key
+    boolean existsByEmailKey(String emailKey);
+
+    Optional<Item> findByEmailKey(String emailKey);
+
+    @Query("SELECT i.emailKey FROM Item i WHERE i.emailKey IN :emailKeys")
+    List<String> findExistingEmailKeys(@Param("emailKeys") Collection<String> emailKeys);
+
+    @Query("SELECT i.email FROM Item i")
+    Stream<String> streamAllEmails();
+
+    // Keyset pagination: the next page starts right after the last id the client has seen
+    List<Item> findByIdGreaterThanOrderByIdAsc(Long lastId, Limit limit);
+
+    // Rows are pulled from the JDBC cursor in batches of the fetch size instead of being loaded at once
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i FROM Item i ORDER BY i.id")
+    Stream<Item> streamAll();
+
+    long countByStatus(ItemStatus status);
+
+    // Keyset scan over the (status, id) index: only the ids with the given status are read, one chunk after the other
+    @Query("SELECT i.id FROM Item i WHERE i.status = :status AND i.id > :lastId ORDER BY i.id")
+    List<Long> findIdsByStatusAndIdGreaterThan(@Param("status") ItemStatus status, @Param("lastId") Long lastId, Limit limit);
+
+    // The same scan, within one leased range of ids
+    @Query("SELECT i.id FROM Item i WHERE i.status = :status AND i.id > :lastId AND i.id <= :maxId ORDER BY i.id")
+    List<Long> findIdsByStatusInRange(@Param("status") ItemStatus status, @Param("lastId") Long lastId, @Param("maxId") Long maxId,
+                                      Limit limit);
 }
@@ -0,0 +1,15 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+public interface ItemRepositoryCustom {
+    Optional<Item> findByEmail(String email);
+
+    Optional<Item> findCurrentById(Long id);
+
+    Map<Long, Long> updateStatusByIdIn(Collection<Long> ids, ItemStatus status);
+}
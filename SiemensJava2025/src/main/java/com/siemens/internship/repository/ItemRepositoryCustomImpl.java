@@ -0,0 +1,67 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.hibernate.Session;
+import org.hibernate.jpa.SpecHints;
+
+@Transactional
+public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Resolved through the natural-id cache and then the entity cache, so a warm lookup issues no SQL
+    @Override
+    public Optional<Item> findByEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Item.class)
+                .loadOptional(email);
+    }
+
+    // Always the row of the database: other nodes write items without evicting the entity cache of this one, so a cached
+    // entity may be behind. The cached entity is refreshed with the row that was read
+    @Override
+    public Optional<Item> findCurrentById(Long id) {
+        return Optional.ofNullable(entityManager.find(Item.class, id, Map.of(
+                SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, CacheRetrieveMode.BYPASS,
+                SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.REFRESH)));
+    }
+
+    // Set-based status transition: one statement per chunk instead of a find + save per item. Returns the ids it changed, in id
+    // order, with the version each item has after the update: the rows to change are locked first, so a concurrent delete or
+    // transition waits for the commit and the UPDATE moves exactly them from the version read. Ids that are gone or already have
+    // the status are left out.
+    // Hibernate evicts the Item cache regions after a bulk update, so cached reads never see the old status.
+    // The version moves as well, so an update based on the item before the transition fails instead of overwriting it
+    @Override
+    public Map<Long, Long> updateStatusByIdIn(Collection<Long> ids, ItemStatus status) {
+        entityManager.flush();
+        Map<Long, Long> changedVersions = new LinkedHashMap<>();
+        entityManager.createQuery(
+                        "SELECT i.id, i.version FROM Item i WHERE i.id IN :ids AND i.status <> :status ORDER BY i.id", Object[].class)
+                .setParameter("ids", ids)
+                .setParameter("status", status)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList()
+                .forEach(row -> changedVersions.put((Long) row[0], (Long) row[1] + 1));
+        if (!changedVersions.isEmpty()) {
+            entityManager.createQuery("UPDATE Item i SET i.status = :status, i.version = i.version + 1 WHERE i.id IN :ids")
+                    .setParameter("ids", changedVersions.keySet())
+                    .setParameter("status", status)
+                    .executeUpdate();
+            entityManager.clear();
+        }
+        return changedVersions;
+    }
+}
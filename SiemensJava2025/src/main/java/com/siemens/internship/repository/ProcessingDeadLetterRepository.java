@@ -0,0 +1,25 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.ProcessingDeadLetter;
+import jakarta.transaction.Transactional;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@Transactional
+public interface ProcessingDeadLetterRepository extends JpaRepository<ProcessingDeadLetter, Long> {
+
+    // Keyset scan over the dead-lettered item ids, like the reader of a regular run over the unprocessed items
+    @Query("SELECT d.itemId FROM ProcessingDeadLetter d WHERE d.itemId > :lastId ORDER BY d.itemId")
+    List<Long> findItemIdsAfter(@Param("lastId") Long lastId, Limit limit);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM ProcessingDeadLetter d WHERE d.itemId IN :itemIds")
+    int deleteByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
+}
@@ -0,0 +1,37 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.ProcessingLease;
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@Transactional
+public interface ProcessingLeaseRepository extends JpaRepository<ProcessingLease, Long> {
+
+    // SELECT ... FOR UPDATE: two nodes never decide about the same range at the same time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM ProcessingLease l WHERE l.rangeStart = :rangeStart")
+    Optional<ProcessingLease> findForUpdate(@Param("rangeStart") Long rangeStart);
+
+    // Only the owner moves its lease, 0 when another node took the range over.
+    // Batches of a range commit in any order, the last id never moves back
+    @Modifying
+    @Query("UPDATE ProcessingLease l SET l.lastId = CASE WHEN l.lastId < :lastId THEN :lastId ELSE l.lastId END, "
+            + "l.expiresAt = :expiresAt "
+            + "WHERE l.rangeStart = :rangeStart AND l.owner = :owner")
+    int renew(@Param("rangeStart") Long rangeStart, @Param("owner") String owner, @Param("lastId") Long lastId,
+              @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Query("UPDATE ProcessingLease l SET l.owner = null, l.completedAt = :completedAt "
+            + "WHERE l.rangeStart = :rangeStart AND l.owner = :owner")
+    int complete(@Param("rangeStart") Long rangeStart, @Param("owner") String owner, @Param("completedAt") Instant completedAt);
+}
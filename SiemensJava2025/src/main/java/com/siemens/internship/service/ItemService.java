@@ -1,24 +1,48 @@
 package com.siemens.internship.service;
 
+import com.siemens.internship.controller.dto.BatchResultDTO;
+import com.siemens.internship.controller.dto.ItemChangeDTO;
 import com.siemens.internship.controller.dto.ItemDTO;
+import com.siemens.internship.controller.dto.ItemLookupDTO;
+import com.siemens.internship.processing.ProcessingJob;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface ItemService {
 
     List<ItemDTO> findAll();
 
+    List<ItemDTO> findPage(Long lastId, int size);
+
+    void streamAll(Consumer<ItemDTO> consumer);
+
     ItemDTO findById(Long id);
 
+    ItemLookupDTO findAllById(List<Long> ids);
+
+    Long findVersion(Long id);
+
+    String findAllVersion();
+
+    List<ItemChangeDTO> findChanges(Long cursor, int limit);
+
     ItemDTO findByEmail(String email);
 
+    boolean existsByEmail(String email);
+
     ItemDTO save(ItemDTO itemDTO);
 
+    BatchResultDTO saveAll(Iterator<ItemDTO> itemDTOs);
+
     ItemDTO update(Long id, ItemDTO itemDTO);
 
     void deleteById(Long id);
 
-    CompletableFuture<List<ItemDTO>> processItemsAsync();
+    CompletableFuture<ProcessingJob> processItemsAsync(ProcessingJob job);
+
+    CompletableFuture<ProcessingJob> retryFailedItemsAsync(ProcessingJob job);
 
 }
 
@@ -1,35 +1,90 @@
 package com.siemens.internship.service.impl;
 
+import com.siemens.internship.cache.EmailRegistry;
+import com.siemens.internship.cache.ItemCache;
+import com.siemens.internship.controller.dto.BatchResultDTO;
+import com.siemens.internship.controller.dto.ItemChangeDTO;
 import com.siemens.internship.controller.dto.ItemDTO;
+import com.siemens.internship.controller.dto.ItemLookupDTO;
 import com.siemens.internship.exception.EmailAlreadyExistsException;
 import com.siemens.internship.exception.ObjectNotFoundException;
+import com.siemens.internship.exception.VersionConflictException;
+import com.siemens.internship.mapper.ItemMapper;
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemChange;
+import com.siemens.internship.outbox.ItemChangeLog;
+import com.siemens.internship.processing.ItemProcessingPipeline;
+import com.siemens.internship.processing.ProcessingJob;
 import com.siemens.internship.repository.ItemRepository;
 import com.siemens.internship.service.ItemService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import org.modelmapper.ModelMapper;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+// Every public method is timed as items.service (tags: method, exception)
 @Service
+@Timed(ItemServiceImpl.TIMER)
 public class ItemServiceImpl implements ItemService {
 
+    public static final String TIMER = "items.service";
+
     @Autowired
     private ItemRepository itemRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private ItemMapper itemMapper;
+
+    @Autowired
+    private EmailRegistry emailRegistry;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private ItemChangeLog itemChangeLog;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ItemProcessingPipeline itemProcessingPipeline;
 
-    private static ExecutorService executor = Executors.newFixedThreadPool(10);
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int BATCH_CHUNK_SIZE = 500;
+
+    private static final int MAX_LOOKUP_SIZE = 10_000;
+
+    private static final int LOOKUP_CHUNK_SIZE = 500;
 
     public List<ItemDTO> findAll() {
         List<Item> items = itemRepository.findAll();
@@ -39,113 +94,306 @@ public class ItemServiceImpl implements ItemService {
                 .toList();
     }
 
-    public ItemDTO findById(Long id) {
-        return itemRepository.findById(id)
+    @Override
+    public List<ItemDTO> findPage(Long lastId, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + "!");
+        }
+
+        return itemRepository.findByIdGreaterThanOrderByIdAsc(lastId == null ? 0L : lastId, Limit.of(size))
+                .stream()
                 .map(this::mapToItemDTO)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<ItemDTO> consumer) {
+        try (Stream<Item> items = itemRepository.streamAll()) {
+            items.forEach(item -> {
+                consumer.accept(mapToItemDTO(item));
+                // Every written item is detached, so the persistence context does not grow with the table
+                entityManager.detach(item);
+            });
+        }
+    }
+
+    public ItemDTO findById(Long id) {
+        return itemCache.findById(id)
                 .orElseThrow(() -> new ObjectNotFoundException("Item with id: " + id + " not found!"));
     }
 
+    // The cached items first, the others with one IN query per chunk of ids, all in one read-only transaction
+    @Override
+    @Transactional(readOnly = true)
+    public ItemLookupDTO findAllById(List<Long> ids) {
+        if (ids.size() > MAX_LOOKUP_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_LOOKUP_SIZE + " ids can be looked up at once!");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Ids must not be null!");
+        }
+
+        Set<Long> requestedIds = new LinkedHashSet<>(ids);
+        Map<Long, ItemDTO> found = itemCache.findAllPresent(requestedIds);
+        List<Long> uncachedIds = requestedIds.stream()
+                .filter(id -> !found.containsKey(id))
+                .toList();
+        for (int from = 0; from < uncachedIds.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = uncachedIds.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, uncachedIds.size()));
+            itemMapper.toItemDTOs(itemRepository.findAllById(chunk))
+                    .forEach(item -> found.put(item.getId(), item));
+        }
+
+        List<ItemDTO> items = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requestedIds) {
+            ItemDTO item = found.get(id);
+            if (item == null) {
+                missingIds.add(id);
+            } else {
+                items.add(item);
+            }
+        }
+        return new ItemLookupDTO(items, missingIds);
+    }
+
+    @Override
+    public Long findVersion(Long id) {
+        return itemCache.findVersion(id)
+                .orElseThrow(() -> new ObjectNotFoundException("Item with id: " + id + " not found!"));
+    }
+
+    // Every write appends to the outbox in its transaction, so the last position is shared by all instances and moves
+    // with each committed write, whichever instance made it
+    @Override
+    public String findAllVersion() {
+        return Long.toString(itemChangeLog.lastPosition());
+    }
+
+    @Override
+    public List<ItemChangeDTO> findChanges(Long cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE + "!");
+        }
+
+        return itemChangeLog.findAfter(cursor == null ? 0L : cursor, limit)
+                .stream()
+                .map(change -> new ItemChangeDTO(change.getPosition(), change.getItemId(), change.getType(),
+                        change.getItemVersion(), change.getChangedAt()))
+                .toList();
+    }
+
     @Override
     public ItemDTO findByEmail(String email) {
-        return itemRepository.findByEmail(email)
-                .map(this::mapToItemDTO)
+        return itemCache.findByEmail(email)
                 .orElseThrow(() -> new ObjectNotFoundException("Item with email: " + email + " not found!"));
     }
 
+    @Override
+    public boolean existsByEmail(String email) {
+        return emailRegistry.contains(email);
+    }
+
+    @Transactional
     public ItemDTO save(ItemDTO itemDTO) {
         var item = mapToItem(itemDTO);
 
-        return mapToItemDTO(itemRepository.save(item));
+        ItemDTO savedItem = mapToItemDTO(saveItem(item));
+        itemChangeLog.record(savedItem.getId(), ItemChange.Type.CREATED, savedItem.getVersion());
+        emailRegistry.register(savedItem.getEmail());
+        itemCache.put(savedItem);
+        return savedItem;
     }
 
     @Override
-    public ItemDTO update(Long id, ItemDTO itemDTO) {
-        ItemDTO itemToUpdate = findById(id);
+    public BatchResultDTO saveAll(Iterator<ItemDTO> itemDTOs) {
+        BatchResultDTO result = new BatchResultDTO();
+        List<IndexedItem> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+        // Emails of the current chunk, earlier chunks are already known by the email registry
+        Set<String> chunkEmails = new HashSet<>();
+        int index = 0;
 
-        if (itemDTO.getEmail().equals(itemToUpdate.getEmail())) {
-            buildItemWithoutEmail(itemDTO, itemToUpdate);
+        while (itemDTOs.hasNext()) {
+            ItemDTO itemDTO = itemDTOs.next();
+            String error = validateBatchItem(itemDTO, chunkEmails);
 
-            return mapToItemDTO(itemRepository.save(mapToItem(itemToUpdate)));
-        } else {
-            ItemDTO itemByEmail = findByEmail(itemDTO.getEmail());
-            if (itemByEmail == null) {
-                buildItemWithoutEmail(itemDTO, itemToUpdate);
-                itemToUpdate.setEmail(itemDTO.getEmail());
-                return mapToItemDTO(itemRepository.save(mapToItem(itemToUpdate)));
+            if (error == null) {
+                chunk.add(new IndexedItem(index, itemDTO));
             } else {
-                throw new EmailAlreadyExistsException("Item with email: " + itemDTO.getEmail() + " already exists!");
+                result.addFailure(index, itemDTO == null ? null : itemDTO.getEmail(), error);
+            }
+            index++;
+
+            if (chunk.size() == BATCH_CHUNK_SIZE) {
+                saveChunk(chunk, result);
+                chunk.clear();
+                chunkEmails.clear();
             }
         }
+
+        if (!chunk.isEmpty()) {
+            saveChunk(chunk, result);
+        }
+        result.setReceived(index);
+        return result;
     }
 
+    // Optimistic locking instead of a read-modify-write: one SELECT of the row, then UPDATE item SET <changed columns>,
+    // version = ? WHERE id = ? AND version = ?. The row is read from the database and not from the second-level cache, which
+    // does not see the writes of other nodes, so If-Match is compared with the current version. A version that moved on since
+    // the client (or this request) read the item fails fast with a VersionConflictException, no row lock is waited for
+    @Override
+    @Transactional
+    public ItemDTO update(Long id, ItemDTO itemDTO) {
+        Item item = itemRepository.findCurrentById(id)
+                .orElseThrow(() -> new ObjectNotFoundException("Item with id: " + id + " not found!"));
+        if (itemDTO.getVersion() != null && !itemDTO.getVersion().equals(item.getVersion())) {
+            throw new VersionConflictException("Item with id: " + id + " was modified, its current version is " + item.getVersion() + "!");
+        }
+
+        String currentEmail = item.getEmail();
+        // The same email, possibly with a different case, still belongs to this item
+        boolean emailChanged = itemDTO.getEmail() != null
+                && !EmailRegistry.normalize(itemDTO.getEmail()).equals(EmailRegistry.normalize(currentEmail));
+        if (emailChanged && existsByEmail(itemDTO.getEmail())) {
+            throw new EmailAlreadyExistsException("Item with email: " + itemDTO.getEmail() + " already exists!");
+        }
+
+        itemMapper.applyChanges(itemDTO, item);
+        ItemDTO updatedItem = mapToItemDTO(flushItem(item));
+        if (emailChanged) {
+            emailRegistry.unregister(currentEmail);
+            emailRegistry.register(updatedItem.getEmail());
+        }
+        itemChangeLog.record(id, ItemChange.Type.UPDATED, updatedItem.getVersion());
+        itemCache.evict(id, currentEmail);
+        itemCache.put(updatedItem);
+        return updatedItem;
+    }
+
+    // The current row as well: the DELETE is conditional on the version of the entity
+    @Transactional
     public void deleteById(Long id) {
-        Optional<Item> itemToDelete = itemRepository.findById(id);
+        Optional<Item> itemToDelete = itemRepository.findCurrentById(id);
         if (itemToDelete.isPresent()) {
             itemRepository.delete(itemToDelete.get());
+            itemChangeLog.record(id, ItemChange.Type.DELETED, itemToDelete.get().getVersion());
+            emailRegistry.unregister(itemToDelete.get().getEmail());
+            itemCache.evict(id, itemToDelete.get().getEmail());
         } else {
             throw new ObjectNotFoundException("Item with id: " + id + " not found!");
         }
     }
 
     @Async
-    public CompletableFuture<List<ItemDTO>> processItemsAsync() {
+    public CompletableFuture<ProcessingJob> processItemsAsync(ProcessingJob job) {
 
         // The full explications are on the README.md file
-        // Retrieve all items ids from the DB
-        List<Long> itemIds = itemRepository.findAllIds();
-
-        // I chose as tread-safe collection HashMap and I stored the items like this:
-        // Key: 0 - value: a list with items status != "PROCESSED" and we should process
-        // I don't need the items that already processed, so I didn't create a slot for them
-        Map<Integer, List<ItemDTO>> itemStatusMap = new ConcurrentHashMap<>();
-        itemStatusMap.put(0, Collections.synchronizedList(new ArrayList<>()));
-
-        List<CompletableFuture<Void>> futures = new ArrayList<>();
-
-        // An async task is used to process each item
-        for (Long itemId : itemIds) {
-            CompletableFuture<Void> future = CompletableFuture.supplyAsync(() -> {
-                        try {
-                            Thread.sleep(100);
-                            // When saving each item, I check that each field is filled in, also the email is unique and valid
-                            return mapToItemDTO(itemRepository.findById(itemId).orElseThrow());
-                        } catch (InterruptedException e) {
-                            throw new RuntimeException("Interrupted while retrieving item " + itemId, e);
-                        }
-                    }, executor)
-                    .thenAcceptAsync(itemDTO -> {
-
-                        // If status is not "PROCESSED" then it will be updated in DB and added to corresponding map
-                        if (!"PROCESSED".equals(itemDTO.getStatus())) {
-                            itemDTO.setStatus("PROCESSED");
-                            itemRepository.save(mapToItem(itemDTO));
-                            itemStatusMap.get(0).add(itemDTO);
-                        }
-                    }, executor)
-                    .exceptionally(ex -> {
-                        System.err.println("Error processing item ID " + itemId + ": " + ex.getMessage());
-                        return null;
-                    });
-
-            futures.add(future);
-        }
-
-        // Wait for all tasks to complete and then return the newly processed items
-        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                .thenApply(v -> itemStatusMap.get(0));
+        // The items are processed by a staged pipeline (reader -> transformer -> writer) with bounded queues,
+        // which claims the items range by range (shared with the other nodes) and renews the lease of the range with every
+        // committed batch, so an interrupted run is resumed by the next one.
+        // The progress is recorded on the job, which the client polls while the pipeline is running
+        return CompletableFuture.completedFuture(itemProcessingPipeline.run(job));
     }
 
-    private Item mapToItem(ItemDTO itemDTO) {
-        return modelMapper.map(itemDTO, Item.class);
+    // Writes the dead-lettered items again, those that still fail stay dead-lettered
+    @Async
+    public CompletableFuture<ProcessingJob> retryFailedItemsAsync(ProcessingJob job) {
+        return CompletableFuture.completedFuture(itemProcessingPipeline.retryFailed(job));
     }
 
-    private ItemDTO mapToItemDTO(Item item) {
-        return modelMapper.map(item, ItemDTO.class);
+    private String validateBatchItem(ItemDTO itemDTO, Set<String> chunkEmails) {
+        if (itemDTO == null) {
+            return "Item is not valid JSON!";
+        }
+
+        Set<ConstraintViolation<ItemDTO>> violations = validator.validate(itemDTO);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+
+        if (!chunkEmails.add(EmailRegistry.normalize(itemDTO.getEmail()))) {
+            return "email: This email is already used in the same batch!";
+        }
+        return null;
+    }
+
+    private void saveChunk(List<IndexedItem> chunk, BatchResultDTO result) {
+        // One query per chunk confirms that no email was inserted meanwhile by another instance
+        Set<String> existingEmails = new HashSet<>(itemRepository.findExistingEmailKeys(
+                chunk.stream().map(indexedItem -> EmailRegistry.normalize(indexedItem.itemDTO().getEmail())).toList()));
+
+        List<IndexedItem> itemsToInsert = new ArrayList<>(chunk.size());
+        for (IndexedItem indexedItem : chunk) {
+            if (existingEmails.contains(EmailRegistry.normalize(indexedItem.itemDTO().getEmail()))) {
+                result.addFailure(indexedItem.index(), indexedItem.itemDTO().getEmail(), "email: This email is already taken!");
+            } else {
+                itemsToInsert.add(indexedItem);
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertItems(itemsToInsert));
+            result.setCreated(result.getCreated() + itemsToInsert.size());
+        } catch (DataIntegrityViolationException e) {
+            // A constraint rejected the JDBC batch: retry row by row, so only the offending items fail
+            for (IndexedItem indexedItem : itemsToInsert) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insertItems(List.of(indexedItem)));
+                    result.setCreated(result.getCreated() + 1);
+                } catch (DataIntegrityViolationException ex) {
+                    result.addFailure(indexedItem.index(), indexedItem.itemDTO().getEmail(), "email: This email is already taken!");
+                }
+            }
+        }
+    }
+
+    private void insertItems(List<IndexedItem> indexedItems) {
+        List<Item> items = indexedItems.stream()
+                .map(indexedItem -> mapToItem(indexedItem.itemDTO()))
+                .toList();
+
+        itemRepository.saveAll(items);
+        items.forEach(item -> itemChangeLog.record(item.getId(), ItemChange.Type.CREATED, item.getVersion()));
+        itemRepository.flush();
+        items.forEach(item -> emailRegistry.register(item.getEmail()));
+        // The inserted entities are not needed anymore, the next chunk starts with an empty persistence context
+        entityManager.clear();
+    }
+
+    private record IndexedItem(int index, ItemDTO itemDTO) {
     }
 
-    private static void buildItemWithoutEmail(ItemDTO itemDTO, ItemDTO itemToUpdate) {
-        itemToUpdate.setName(itemDTO.getName());
-        itemToUpdate.setDescription(itemDTO.getDescription());
-        itemToUpdate.setStatus(itemDTO.getStatus());
+    // The unique index on the email column rejects duplicates the registry could not see yet (e.g. concurrent requests).
+    // The INSERT is flushed right away, so the duplicate is reported here and not at commit
+    private Item saveItem(Item item) {
+        try {
+            return itemRepository.saveAndFlush(item);
+        } catch (DataIntegrityViolationException e) {
+            throw new EmailAlreadyExistsException("Item with email: " + item.getEmail() + " already exists!");
+        }
+    }
+
+    // The UPDATE is flushed right away, so a lost race is reported by this method and not at commit
+    private Item flushItem(Item item) {
+        try {
+            return itemRepository.saveAndFlush(item);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new VersionConflictException("Item with id: " + item.getId() + " was modified concurrently!");
+        } catch (DataIntegrityViolationException e) {
+            throw new EmailAlreadyExistsException("Item with email: " + item.getEmail() + " already exists!");
+        }
+    }
+
+    private Item mapToItem(ItemDTO itemDTO) {
+        return itemMapper.toItem(itemDTO);
+    }
+
+    private ItemDTO mapToItemDTO(Item item) {
+        return itemMapper.toItemDTO(item);
     }
 }
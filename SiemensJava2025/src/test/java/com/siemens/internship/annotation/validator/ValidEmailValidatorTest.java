@@ -0,0 +1,109 @@
+package com.siemens.internship.annotation.validator;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.constraints.Email;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+// Differential test against the constraint ValidEmailValidator replaces: the former @Email(regexp = ...) of ItemDTO
+class ValidEmailValidatorTest {
+
+    private static final String FORMER_REGEXP = "^([a-zA-Z]+[0-9]*[-_.]*)+[a-zA-Z]+[0-9]*"
+            + "@([a-zA-Z]+[0-9]*[.-]*)+[a-zA-Z]+[0-9]*"
+            + "[.][a-zA-Z]{2,4}";
+
+    private static final String LOCAL_PART_CHARACTERS = "abzABZ0189._-";
+    private static final String DOMAIN_CHARACTERS = "abzABZ0189.-";
+    private static final String ANY_CHARACTERS = "aZ09._-@+!é ";
+
+    private static ValidatorFactory validatorFactory;
+
+    private static Validator validator;
+
+    @BeforeAll
+    static void setup() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void testIsValidEmail_shouldAcceptAndRejectLikeTheFormerPattern() {
+        List<String> emails = List.of(
+                "item1@gmail.com", "ab@cd.ef", "Ab.c-d_e9@x1y.z2-w.info", "a.b_c-d@ab.de",
+                "a@gmail.com", "a1@gmail.com", "ab1@gmail.com", "1ab@gmail.com", ".ab@gmail.com", "ab.@gmail.com",
+                "a..b@gmail.com", "a.-b@gmail.com", "a-1b@gmail.com", "ab@a.com", "ab@a1.com", "ab@gm--ail.com",
+                "ab@gmail-.com", "ab@gmail.-com", "ab@gm.-ail.com", "ab@gmail..com", "ab@gmail.c", "ab@gmail.comma",
+                "ab@gmail.co1", "ab@1gmail.com", "ab@@gmail.com", "ab@gm@ail.com", "ab!@gmail.com", "", "@", "ab@",
+                "ab".repeat(32) + "@gmail.com", "ab".repeat(32) + "c@gmail.com",
+                "ab@" + "a".repeat(63) + ".com", "ab@" + "a".repeat(64) + ".com",
+                "ab@" + ("a".repeat(60) + ".").repeat(4) + "com", "ab@" + ("a".repeat(60) + ".").repeat(5) + "com");
+
+        emails.forEach(email -> assertThat(ValidEmailValidator.isValidEmail(email))
+                .as(email)
+                .isEqualTo(isValidFormerEmail(email)));
+        assertThat(ValidEmailValidator.isValidEmail("item1@gmail.com")).isTrue();
+        assertThat(ValidEmailValidator.isValidEmail("a@gmail.com")).isFalse();
+    }
+
+    // Random strings, mostly shaped like an email so both sides get past the first character. Short enough for the former
+    // pattern to finish quickly, long enough to reach every state of the new validator
+    @Test
+    void testIsValidEmail_Fuzzed_shouldAgreeWithTheFormerPattern() {
+        Random random = new Random(20250521L);
+
+        for (int i = 0; i < 100_000; i++) {
+            String email = switch (i % 3) {
+                case 0 -> randomString(random, ANY_CHARACTERS, 16);
+                case 1 -> randomString(random, LOCAL_PART_CHARACTERS, 10) + "@" + randomString(random, DOMAIN_CHARACTERS, 12);
+                default -> randomString(random, LOCAL_PART_CHARACTERS, 10) + "@" + randomString(random, DOMAIN_CHARACTERS, 10)
+                        + "." + randomString(random, "abZ1", 5);
+            };
+
+            assertThat(ValidEmailValidator.isValidEmail(email))
+                    .as(email)
+                    .isEqualTo(isValidFormerEmail(email));
+        }
+    }
+
+    // The input that pins the former pattern: a long run of letters that only fails at its end
+    @Test
+    void testIsValidEmail_Adversarial_shouldStayLinear() {
+        String email = "a".repeat(50_000) + "!@gmail.com";
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> assertThat(ValidEmailValidator.isValidEmail(email)).isFalse());
+    }
+
+    @Test
+    void testIsValid_NullEmail_shouldBeLeftToNotNull() {
+        assertThat(new ValidEmailValidator().isValid(null, null)).isTrue();
+    }
+
+    private static boolean isValidFormerEmail(String email) {
+        return validator.validate(new FormerEmail(email)).isEmpty();
+    }
+
+    private static String randomString(Random random, String characters, int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(characters.charAt(random.nextInt(characters.length())));
+        }
+        return builder.toString();
+    }
+
+    private record FormerEmail(@Email(regexp = FORMER_REGEXP) String email) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.siemens.internship.cache;
+
+import com.siemens.internship.repository.ItemRepository;
+import java.util.stream.Stream;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class EmailRegistryTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private EmailRegistry emailRegistry;
+
+    @Test
+    void testContains_beforeLoad_shouldAskTheDatabase() {
+        when(itemRepository.existsByEmailKey("item1@gmail.com")).thenReturn(true);
+
+        assertThat(emailRegistry.contains("Item1@Gmail.com")).isTrue();
+        verify(itemRepository).existsByEmailKey("item1@gmail.com");
+    }
+
+    @Test
+    void testContains_afterLoad_shouldOnlyConfirmHitsInTheDatabase() {
+        when(itemRepository.streamAllEmails()).thenReturn(Stream.of("Item1@Gmail.com"));
+        when(itemRepository.existsByEmailKey("item1@gmail.com")).thenReturn(true);
+
+        emailRegistry.load();
+
+        assertThat(emailRegistry.contains(" ITEM1@GMAIL.COM ")).isTrue();
+        assertThat(emailRegistry.contains("item2@gmail.com")).isFalse();
+        verify(itemRepository).streamAllEmails();
+        verify(itemRepository).existsByEmailKey("item1@gmail.com");
+        verifyNoMoreInteractions(itemRepository);
+    }
+
+    @Test
+    void testContains_StaleHit_shouldBeDropped() {
+        // Deleted by another instance after the load
+        when(itemRepository.streamAllEmails()).thenReturn(Stream.of("item1@gmail.com"));
+        when(itemRepository.existsByEmailKey("item1@gmail.com")).thenReturn(false);
+        emailRegistry.load();
+
+        assertThat(emailRegistry.contains("item1@gmail.com")).isFalse();
+        clearInvocations(itemRepository);
+
+        assertThat(emailRegistry.contains("item1@gmail.com")).isFalse();
+        verify(itemRepository, never()).existsByEmailKey("item1@gmail.com");
+    }
+
+    @Test
+    void testRegisterAndUnregister() {
+        when(itemRepository.streamAllEmails()).thenReturn(Stream.empty());
+        when(itemRepository.existsByEmailKey("item1@gmail.com")).thenReturn(true);
+        emailRegistry.load();
+
+        emailRegistry.register("item1@gmail.com");
+        assertThat(emailRegistry.contains("item1@gmail.com")).isTrue();
+
+        emailRegistry.unregister("ITEM1@gmail.com");
+        assertThat(emailRegistry.contains("item1@gmail.com")).isFalse();
+        verify(itemRepository).existsByEmailKey("item1@gmail.com");
+    }
+}
@@ -0,0 +1,149 @@
+package com.siemens.internship.cache;
+
+import com.siemens.internship.controller.dto.ItemDTO;
+import com.siemens.internship.mapper.ItemMapper;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.utils.TestDataBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class ItemCacheTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemCache itemCache;
+
+    @BeforeEach
+    void setup() {
+        itemCache = new ItemCache(1_000_000, 1_000, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(itemCache, "itemRepository", itemRepository);
+        ReflectionTestUtils.setField(itemCache, "itemMapper", new ItemMapper());
+    }
+
+    @Test
+    void testFindById_shouldLoadOnceAndReturnCopies() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(TestDataBuilder.buildItem(1)));
+
+        ItemDTO first = itemCache.findById(1L).orElseThrow();
+        first.setName("Changed by the caller");
+        ItemDTO second = itemCache.findById(1L).orElseThrow();
+
+        assertThat(second.getName()).isEqualTo("Item 1");
+        verify(itemRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testFindById_Missing_shouldNotBeCached() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThat(itemCache.findById(1L)).isEmpty();
+        assertThat(itemCache.findById(1L)).isEmpty();
+        verify(itemRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void testFindById_ConcurrentMisses_shouldLoadOnce() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        when(itemRepository.findById(1L)).thenAnswer(invocation -> {
+            loading.await(1, TimeUnit.SECONDS);
+            return Optional.of(TestDataBuilder.buildItem(1));
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<CompletableFuture<Optional<ItemDTO>>> futures = IntStream.range(0, 8)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> itemCache.findById(1L), executor))
+                    .toList();
+            loading.countDown();
+
+            assertThat(futures).allSatisfy(future -> assertThat(future.get()).isPresent());
+            verify(itemRepository, times(1)).findById(1L);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFindByEmail_shouldShareTheCachedItem() {
+        Item item = TestDataBuilder.buildItem(1);
+        when(itemRepository.findByEmailKey("item1@gmail.com")).thenReturn(Optional.of(item));
+
+        assertThat(itemCache.findByEmail("item1@gmail.com")).map(ItemDTO::getId).contains(1L);
+        assertThat(itemCache.findByEmail(" Item1@Gmail.com")).isPresent();
+        assertThat(itemCache.findById(1L)).map(ItemDTO::getName).contains("Item 1");
+
+        verify(itemRepository, times(1)).findByEmailKey("item1@gmail.com");
+        verify(itemRepository, times(0)).findById(1L);
+    }
+
+    @Test
+    void testFindByEmail_ItemCachedSinceTheRead_shouldKeepTheCachedItem() {
+        Item updated = TestDataBuilder.buildItem(1);
+        updated.setName("Updated");
+        updated.setVersion(1L);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(updated));
+        // The lookup by email reads the row, then the item is cached with a newer version (e.g. by a committed update)
+        when(itemRepository.findByEmailKey("item1@gmail.com")).thenAnswer(invocation -> {
+            itemCache.findById(1L);
+            return Optional.of(TestDataBuilder.buildItem(1));
+        });
+
+        assertThat(itemCache.findByEmail("item1@gmail.com")).map(ItemDTO::getName).contains("Updated");
+        assertThat(itemCache.findVersion(1L)).contains(1L);
+    }
+
+    @Test
+    void testEvict_shouldReloadItemAndEmail() {
+        Item updated = TestDataBuilder.buildItem(1);
+        updated.setName("Updated");
+        when(itemRepository.findById(1L))
+                .thenReturn(Optional.of(TestDataBuilder.buildItem(1)))
+                .thenReturn(Optional.of(updated));
+        itemCache.findById(1L);
+
+        itemCache.evict(1L, "item1@gmail.com");
+
+        assertThat(itemCache.findById(1L)).map(ItemDTO::getName).contains("Updated");
+    }
+
+    @Test
+    void testPut_withoutTransaction_shouldBeVisibleRightAway() {
+        itemCache.put(TestDataBuilder.buildItemDTO(1));
+
+        assertThat(itemCache.findById(1L)).map(ItemDTO::getEmail).contains("item1@gmail.com");
+        assertThat(itemCache.findByEmail("item1@gmail.com")).map(ItemDTO::getId).contains(1L);
+    }
+
+    @Test
+    void testFindByEmail_afterEmailChange_shouldAskTheDatabase() {
+        itemCache.put(TestDataBuilder.buildItemDTO(1));
+        ItemDTO changed = TestDataBuilder.buildItemDTO(1);
+        changed.setEmail("changed@gmail.com");
+        itemCache.evictAll(List.of(1L));
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(new ItemMapper().toItem(changed)));
+        when(itemRepository.findByEmailKey("item1@gmail.com")).thenReturn(Optional.empty());
+
+        assertThat(itemCache.findByEmail("item1@gmail.com")).isEmpty();
+    }
+}
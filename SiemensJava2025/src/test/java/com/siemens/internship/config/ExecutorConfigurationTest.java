@@ -0,0 +1,105 @@
+package com.siemens.internship.config;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+class ExecutorConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(ExecutorConfiguration.class);
+
+    @Test
+    void testPlatformExecutor_shouldBeSizedToProcessingPool() {
+        contextRunner
+                .withPropertyValues("items.processing.executor=platform",
+                        "items.processing.datasource.maximum-pool-size=4")
+                .run(context -> {
+                    TaskExecutor executor = context.getBean(ExecutorConfiguration.PROCESSING_EXECUTOR, TaskExecutor.class);
+
+                    assertThat(executor).isInstanceOf(ThreadPoolTaskExecutor.class);
+                    // Plus the job, transformer and writer threads of the pipeline
+                    assertThat(((ThreadPoolTaskExecutor) executor).getMaxPoolSize()).isEqualTo(7);
+                    assertThat(((ThreadPoolTaskExecutor) executor).getCorePoolSize()).isEqualTo(7);
+                });
+    }
+
+    @Test
+    void testVirtualExecutor_shouldBeLimitedToProcessingPool() {
+        contextRunner
+                .withPropertyValues("items.processing.executor=virtual",
+                        "items.processing.datasource.maximum-pool-size=2")
+                .run(context -> {
+                    ThreadPoolTaskExecutor executor = context.getBean(ExecutorConfiguration.PROCESSING_EXECUTOR, ThreadPoolTaskExecutor.class);
+
+                    assertThat(executor.getMaxPoolSize()).isEqualTo(5);
+                    CompletableFuture<Boolean> virtual = CompletableFuture.supplyAsync(() -> Thread.currentThread().toString().startsWith("VirtualThread"), executor);
+                    assertThat(virtual.get(5, TimeUnit.SECONDS)).isEqualTo(ExecutorConfiguration.virtualThreadsSupported());
+                });
+    }
+
+    @Test
+    void testProcessingExecutor_FullQueue_shouldRejectInsteadOfRunningOnTheCaller() {
+        contextRunner
+                .withPropertyValues("items.processing.datasource.maximum-pool-size=1")
+                .run(context -> {
+                    ThreadPoolTaskExecutor executor = context.getBean(ExecutorConfiguration.PROCESSING_EXECUTOR, ThreadPoolTaskExecutor.class);
+                    CountDownLatch release = new CountDownLatch(1);
+                    try {
+                        for (int task = 0; task < executor.getMaxPoolSize() + executor.getQueueCapacity(); task++) {
+                            executor.execute(() -> await(release));
+                        }
+
+                        AtomicBoolean ran = new AtomicBoolean();
+                        assertThrows(TaskRejectedException.class, () -> executor.execute(() -> ran.set(true)));
+                        assertThat(ran).isFalse();
+                    } finally {
+                        release.countDown();
+                    }
+                });
+    }
+
+    @Test
+    void testEventsExecutor_shouldBeSeparateFromTheProcessingExecutor() {
+        contextRunner
+                .withPropertyValues("items.processing.events.threads=2")
+                .run(context -> {
+                    ThreadPoolTaskExecutor executor = context.getBean(ExecutorConfiguration.EVENTS_EXECUTOR, ThreadPoolTaskExecutor.class);
+
+                    assertThat(executor).isNotSameAs(context.getBean(ExecutorConfiguration.PROCESSING_EXECUTOR));
+                    assertThat(executor.getMaxPoolSize()).isEqualTo(2);
+                    // Nothing is ever run by the thread that submits an event
+                    CompletableFuture<String> thread = CompletableFuture.supplyAsync(() -> Thread.currentThread().getName(), executor);
+                    assertThat(thread.get(5, TimeUnit.SECONDS)).startsWith("item-processing-events-");
+                });
+    }
+
+    @Test
+    void testProcessingTasks_shouldTakeTheirConnectionsFromTheProcessingPool() {
+        contextRunner.run(context -> {
+            TaskExecutor executor = context.getBean(ExecutorConfiguration.PROCESSING_EXECUTOR, TaskExecutor.class);
+
+            CompletableFuture<WorkloadRoutingDataSource.Workload> workload =
+                    CompletableFuture.supplyAsync(WorkloadRoutingDataSource::currentWorkload, executor);
+
+            assertThat(workload.get(5, TimeUnit.SECONDS)).isEqualTo(WorkloadRoutingDataSource.Workload.PROCESSING);
+            assertThat(WorkloadRoutingDataSource.currentWorkload()).isEqualTo(WorkloadRoutingDataSource.Workload.INTERACTIVE);
+        });
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
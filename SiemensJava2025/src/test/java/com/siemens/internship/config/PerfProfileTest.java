@@ -0,0 +1,66 @@
+package com.siemens.internship.config;
+
+import com.siemens.internship.controller.dto.ItemDTO;
+import com.siemens.internship.service.ItemService;
+import com.siemens.internship.utils.TestDataBuilder;
+import com.zaxxer.hikari.HikariDataSource;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// The perf profile turns auto-commit off in the pool, so every write must still be committed by its transaction
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:perf-profile;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("perf")
+class PerfProfileTest {
+
+    @Autowired
+    private HikariDataSource interactiveDataSource;
+
+    @Autowired
+    private HikariDataSource processingDataSource;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        itemService.findAll().forEach(item -> itemService.deleteById(item.getId()));
+    }
+
+    @Test
+    void testPerfProfile_shouldTuneThePoolAndJpa() {
+        assertThat(interactiveDataSource.isAutoCommit()).isFalse();
+        assertThat(interactiveDataSource.getMaximumPoolSize()).isEqualTo(16);
+        assertThat(processingDataSource.isAutoCommit()).isFalse();
+        assertThat(processingDataSource.getMaximumPoolSize()).isEqualTo(8);
+        assertThat(processingDataSource.getConnectionTimeout()).isEqualTo(2000);
+        assertThat(environment.getProperty("spring.jpa.open-in-view", Boolean.class)).isFalse();
+    }
+
+    @Test
+    void testWrites_WithoutAutoCommit_shouldBeCommitted() {
+        ItemDTO saved = itemService.save(TestDataBuilder.buildItemDTOWithoutId(1));
+        saved.setDescription("Updated");
+        itemService.update(saved.getId(), saved);
+
+        // Read on another connection: only committed rows are visible there
+        String description = transactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject("SELECT description FROM item WHERE id = ?", String.class, saved.getId()));
+        assertThat(description).isEqualTo("Updated");
+    }
+}
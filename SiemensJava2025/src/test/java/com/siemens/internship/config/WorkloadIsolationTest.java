@@ -0,0 +1,143 @@
+package com.siemens.internship.config;
+
+import com.siemens.internship.controller.dto.ItemDTO;
+import com.siemens.internship.service.ItemService;
+import com.siemens.internship.utils.TestDataBuilder;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+// The requests have 4 connections, processing 2 of its own. Processing yields to any request in flight, at most 100 ms at a time
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:workload-isolation;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "spring.datasource.hikari.connection-timeout=250",
+        "items.processing.datasource.maximum-pool-size=2",
+        "items.processing.yield.request-threshold=0",
+        "items.processing.yield.max-wait=100ms",
+        "logging.level.root=WARN"
+})
+class WorkloadIsolationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private HikariDataSource interactiveDataSource;
+
+    @Autowired
+    private HikariDataSource processingDataSource;
+
+    @Autowired
+    private InteractiveLoad interactiveLoad;
+
+    private final List<Connection> processingConnections = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() throws SQLException {
+        for (Connection connection : processingConnections) {
+            connection.close();
+        }
+        processingConnections.clear();
+        itemService.findAll().forEach(item -> itemService.deleteById(item.getId()));
+    }
+
+    @Test
+    void testRequests_WithTheProcessingPoolFullyLeased_shouldGetInteractiveConnections() throws SQLException {
+        itemService.save(TestDataBuilder.buildItemDTOWithoutId(1));
+
+        // Both processing connections taken through the routing data source, the way the processing executor takes them
+        leaseProcessingConnection();
+        leaseProcessingConnection();
+        assertThat(processingDataSource.getHikariPoolMXBean().getActiveConnections()).isEqualTo(2);
+        assertThat(processingDataSource.getHikariPoolMXBean().getIdleConnections()).isZero();
+        // More processing work waits for its own pool and never falls back to the interactive one
+        assertThrows(SQLTransientConnectionException.class, this::leaseProcessingConnection);
+
+        List<CompletableFuture<HttpStatus>> clients = new ArrayList<>();
+        for (int client = 0; client < 2; client++) {
+            clients.add(CompletableFuture.supplyAsync(() -> {
+                // The list is always read from the database, unlike a single item that may be cached
+                HttpStatus status = HttpStatus.OK;
+                for (int request = 0; request < 20 && status == HttpStatus.OK; request++) {
+                    ResponseEntity<ItemDTO[]> response = restTemplate.getForEntity("/api/items", ItemDTO[].class);
+                    status = HttpStatus.valueOf(response.getStatusCode().value());
+                }
+                return status;
+            }));
+        }
+
+        assertThat(clients).extracting(CompletableFuture::join).containsOnly(HttpStatus.OK);
+        assertThat(processingDataSource.getHikariPoolMXBean().getActiveConnections()).isEqualTo(2);
+        assertThat(interactiveDataSource.getHikariPoolMXBean().getTotalConnections()).isPositive();
+    }
+
+    @Test
+    void testYieldToRequests_shouldWaitWhileARequestIsInFlight() throws Exception {
+        assertThat(interactiveLoad.yieldToRequests()).isZero();
+
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> request = CompletableFuture.runAsync(() -> {
+            try {
+                interactiveLoad.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (req, res) -> {
+                    inFlight.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(inFlight.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The request never ends while processing waits: it gives up after max-wait
+        assertThat(interactiveLoad.yieldToRequests()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+
+        release.countDown();
+        request.join();
+        assertThat(interactiveLoad.getInFlight()).isZero();
+        assertThat(interactiveLoad.yieldToRequests()).isZero();
+    }
+
+    private void leaseProcessingConnection() throws SQLException {
+        List<SQLException> failures = new ArrayList<>();
+        WorkloadRoutingDataSource.processingTasks().decorate(() -> {
+            try {
+                processingConnections.add(dataSource.getConnection());
+            } catch (SQLException e) {
+                failures.add(e);
+            }
+        }).run();
+        if (!failures.isEmpty()) {
+            throw failures.get(0);
+        }
+    }
+}
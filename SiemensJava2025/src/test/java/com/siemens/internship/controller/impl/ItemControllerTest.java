@@ -0,0 +1,768 @@
+package com.siemens.internship.controller.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.siemens.internship.controller.dto.ItemChangePageDTO;
+import com.siemens.internship.controller.dto.ItemDTO;
+import com.siemens.internship.controller.dto.ProcessingJobDTO;
+import com.siemens.internship.model.ProcessingDeadLetter;
+import com.siemens.internship.processing.ProcessingJob;
+import com.siemens.internship.repository.ProcessingDeadLetterRepository;
+import com.siemens.internship.service.ItemService;
+import com.siemens.internship.utils.TestDataBuilder;
+import java.io.ByteArrayInputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.hamcrest.Matchers.greaterThan;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+// Tests export no metrics by default, the Prometheus scrape is part of the API here
+@AutoConfigureObservability(tracing = false)
+@Transactional
+class ItemControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ProcessingDeadLetterRepository deadLetterRepository;
+
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private ItemDTO item1;
+    private ItemDTO item2;
+
+    @BeforeEach
+    void setup() {
+        item1 = TestDataBuilder.buildItemDTOWithoutId(1);
+        item2 = TestDataBuilder.buildItemDTOWithoutId(2);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        item1 = null;
+        item2 = null;
+    }
+
+    @Test
+    void testCreateItem() throws Exception {
+        ItemDTO itemDTO = TestDataBuilder.buildItemDTOWithoutId(1);
+
+        mockMvc.perform(post("/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(itemDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.name").value("Item 1"));
+    }
+
+
+    @Test
+    void testGetAllItems() throws Exception {
+        mockMvc.perform(post("/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item1)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item2)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/items"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void testGetItemById() throws Exception {
+        String response = mockMvc.perform(post("/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item1)))
+                .andReturn().getResponse().getContentAsString();
+
+        ItemDTO saved = objectMapper.readValue(response, ItemDTO.class);
+
+        mockMvc.perform(get("/api/items/" + saved.getId()))
+                .andExpect(status().isFound())
+                .andExpect(jsonPath("$.name").value("Item 1"));
+    }
+
+    @Test
+    void testUpdateItem() throws Exception {
+        String response = mockMvc.perform(post("/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item1)))
+                .andReturn().getResponse().getContentAsString();
+
+        ItemDTO saved = objectMapper.readValue(response, ItemDTO.class);
+        saved.setName("Updated Item");
+
+        mockMvc.perform(put("/api/items/" + saved.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(saved)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Updated Item"));
+    }
+
+    @Test
+    void testUpdateItem_IfMatch_shouldRejectAStaleVersion() throws Exception {
+        String eTag = mockMvc.perform(post("/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item1)))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Long id = itemService.findByEmail(item1.getEmail()).getId();
+        ItemDTO changes = new ItemDTO();
+        changes.setName("Updated Item");
+
+        mockMvc.perform(put("/api/items/" + id)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(changes)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.name").value("Updated Item"))
+                .andExpect(jsonPath("$.description").value("Description 1"));
+
+        // The second writer still holds the old version
+        mockMvc.perform(put("/api/items/" + id)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(changes)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testUpdateItem_InvalidIfMatch() throws Exception {
+        mockMvc.perform(put("/api/items/1")
+                        .header(HttpHeaders.IF_MATCH, "version-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item1)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testUpdateItem_AfterProcessing_shouldNotOverwriteTheNewStatus() throws Exception {
+        try {
+            ItemDTO saved = itemService.save(item1);
+            String eTag = mockMvc.perform(get("/api/items/" + saved.getId()))
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+            String jobResponse = mockMvc.perform(post("/api/items/process"))
+                    .andReturn().getResponse().getContentAsString();
+            awaitJob(objectMapper.readTree(jobResponse).get("jobId").asText());
+
+            // Based on the item before processing: would set the status back to NEW
+            mockMvc.perform(put("/api/items/" + saved.getId())
+                            .header(HttpHeaders.IF_MATCH, eTag)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(saved)))
+                    .andExpect(status().isConflict());
+            mockMvc.perform(get("/api/items/" + saved.getId()))
+                    .andExpect(jsonPath("$.status").value("PROCESSED"));
+        } finally {
+            deleteAllItems();
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testGetItemById_IfNoneMatch_shouldReturnNotModifiedUntilTheItemChanges() throws Exception {
+        try {
+            ItemDTO saved = itemService.save(item1);
+            String eTag = mockMvc.perform(get("/api/items/" + saved.getId()))
+                    .andExpect(status().isFound())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+            mockMvc.perform(get("/api/items/" + saved.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                    .andExpect(content().string(""));
+
+            saved.setDescription("Updated");
+            itemService.update(saved.getId(), saved);
+
+            mockMvc.perform(get("/api/items/" + saved.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                    .andExpect(status().isFound())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                    .andExpect(jsonPath("$.description").value("Updated"));
+        } finally {
+            deleteAllItems();
+        }
+    }
+
+    @Test
+    void testGetItemById_IfNoneMatch_NotFound() throws Exception {
+        mockMvc.perform(get("/api/items/999").header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testGetAllItems_IfNoneMatch_shouldReturnNotModifiedUntilTheCollectionChanges() throws Exception {
+        try {
+            itemService.save(item1);
+            String eTag = mockMvc.perform(get("/api/items"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+            mockMvc.perform(get("/api/items").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+
+            itemService.save(item2);
+
+            mockMvc.perform(get("/api/items").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(2));
+        } finally {
+            deleteAllItems();
+        }
+    }
+
+    @Test
+    void testGetAllItems_Cbor() throws Exception {
+        itemService.save(item1);
+
+        byte[] body = mockMvc.perform(get("/api/items").accept(CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<ItemDTO> items = new CBORMapper().readValue(body, new TypeReference<>() {
+        });
+        assertThat(items).extracting(ItemDTO::getEmail).containsExactly(item1.getEmail());
+    }
+
+    @Test
+    void testGetAllItems_Smile() throws Exception {
+        itemService.save(item1);
+
+        byte[] body = mockMvc.perform(get("/api/items").accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<ItemDTO> items = new SmileMapper().readValue(body, new TypeReference<>() {
+        });
+        assertThat(items).extracting(ItemDTO::getEmail).containsExactly(item1.getEmail());
+    }
+
+    // Compression is done by Tomcat, so this test goes through the real port instead of MockMvc
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testGetAllItems_LargeList_shouldBeCompressed() throws Exception {
+        try {
+            for (int i = 1; i <= 50; i++) {
+                itemService.save(TestDataBuilder.buildItemDTOWithoutId(i));
+            }
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+            headers.setAccept(List.of(CBOR));
+
+            ResponseEntity<byte[]> response = restTemplate.exchange("/api/items", HttpMethod.GET,
+                    new HttpEntity<>(headers), byte[].class);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+            List<ItemDTO> items = new CBORMapper().readValue(new GZIPInputStream(new ByteArrayInputStream(response.getBody())),
+                    new TypeReference<>() {
+                    });
+            assertThat(items).hasSize(50);
+        } finally {
+            deleteAllItems();
+        }
+    }
+
+    @Test
+    void testDeleteItem() throws Exception {
+        String response = mockMvc.perform(post("/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item1)))
+                .andReturn().getResponse().getContentAsString();
+
+        ItemDTO saved = objectMapper.readValue(response, ItemDTO.class);
+
+        mockMvc.perform(delete("/api/items/" + saved.getId()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/items/" + saved.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testGetItemChanges_shouldTailCreateUpdateAndDelete() throws Exception {
+        long cursor = latestChangeCursor();
+        try {
+            ItemDTO saved = itemService.save(item1);
+            ItemDTO changes = new ItemDTO();
+            changes.setDescription("Updated");
+            itemService.update(saved.getId(), changes);
+            itemService.deleteById(saved.getId());
+
+            ItemChangePageDTO page = getChanges(cursor, 100);
+            assertThat(page.getChanges())
+                    .extracting(change -> change.getItemId(), change -> change.getType().name(), change -> change.getItemVersion())
+                    .containsExactly(
+                            tuple(saved.getId(), "CREATED", 0L),
+                            tuple(saved.getId(), "UPDATED", 1L),
+                            tuple(saved.getId(), "DELETED", 1L));
+            assertThat(page.getNextCursor()).isEqualTo(page.getChanges().get(2).getCursor());
+
+            // One change per request, each page continues after the previous one
+            ItemChangePageDTO first = getChanges(cursor, 1);
+            ItemChangePageDTO second = getChanges(first.getNextCursor(), 1);
+            assertThat(first.getChanges()).extracting(change -> change.getType().name()).containsExactly("CREATED");
+            assertThat(second.getChanges()).extracting(change -> change.getType().name()).containsExactly("UPDATED");
+            assertThat(second.getNextCursor()).isGreaterThan(first.getNextCursor());
+
+            // Nothing new: the cursor stays where it is
+            long last = latestChangeCursor();
+            mockMvc.perform(get("/api/items/changes").param("since", String.valueOf(last)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.changes.length()").value(0))
+                    .andExpect(jsonPath("$.nextCursor").value(last));
+        } finally {
+            deleteAllItems();
+        }
+    }
+
+    @Test
+    void testGetItemChanges_InvalidLimit() throws Exception {
+        mockMvc.perform(get("/api/items/changes").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetItemsPage() throws Exception {
+        String response = mockMvc.perform(post("/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item1)))
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(post("/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item2)))
+                .andExpect(status().isCreated());
+
+        ItemDTO first = objectMapper.readValue(response, ItemDTO.class);
+
+        mockMvc.perform(get("/api/items/page").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.nextLastId").value(first.getId()));
+
+        mockMvc.perform(get("/api/items/page").param("lastId", first.getId().toString()).param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Item 2"));
+    }
+
+    @Test
+    void testGetItemsByIds_shouldKeepTheOrderAndReportMissingIds() throws Exception {
+        ItemDTO first = itemService.save(item1);
+        ItemDTO second = itemService.save(item2);
+        long missingId = second.getId() + 1000;
+
+        mockMvc.perform(get("/api/items").param("ids", second.getId() + "," + missingId + "," + first.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].name").value("Item 2"))
+                .andExpect(jsonPath("$.items[1].name").value("Item 1"))
+                .andExpect(jsonPath("$.missingIds[0]").value(missingId));
+    }
+
+    @Test
+    void testLookupItems_shouldAcceptTheIdsInTheBody() throws Exception {
+        ItemDTO first = itemService.save(item1);
+        ItemDTO second = itemService.save(item2);
+
+        mockMvc.perform(post("/api/items/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(first.getId(), second.getId(), first.getId()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].name").value("Item 1"))
+                .andExpect(jsonPath("$.missingIds.length()").value(0));
+
+        mockMvc.perform(post("/api/items/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Collections.nCopies(10_001, first.getId()))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testStreamAllItems() throws Exception {
+        try {
+            mockMvc.perform(post("/api/items")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(item1)))
+                    .andExpect(status().isCreated());
+            mockMvc.perform(post("/api/items")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(item2)))
+                    .andExpect(status().isCreated());
+
+            MvcResult result = mockMvc.perform(get("/api/items").accept(MediaType.APPLICATION_NDJSON))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            String body = mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                    .andReturn().getResponse().getContentAsString();
+
+            String[] lines = body.split("\n");
+            assertThat(lines).hasSize(2);
+            assertThat(objectMapper.readValue(lines[1], ItemDTO.class).getName()).isEqualTo("Item 2");
+        } finally {
+            deleteAllItems();
+        }
+    }
+
+    @Test
+    void testCreateItem_InvalidStatus() throws Exception {
+        item1.setStatus("ARCHIVED");
+
+        mockMvc.perform(post("/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item1)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("status: Status must be one of NEW, PROCESSED!"));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testCreateItem_DuplicateEmail() throws Exception {
+        try {
+            mockMvc.perform(post("/api/items")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(item1)))
+                    .andExpect(status().isCreated());
+
+            item2.setEmail(item1.getEmail().toUpperCase());
+            mockMvc.perform(post("/api/items")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(item2)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value("email: This email is already taken!"));
+        } finally {
+            deleteAllItems();
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testGetItemById_shouldReportSecondLevelCacheHits() throws Exception {
+        try {
+            ItemDTO saved = itemService.save(item1);
+
+            mockMvc.perform(get("/api/items/" + saved.getId()))
+                    .andExpect(status().isFound());
+            mockMvc.perform(get("/api/items/" + saved.getId()))
+                    .andExpect(status().isFound());
+
+            // Reported by the JCache statistics of the region, with the default configuration (no Hibernate statistics)
+            mockMvc.perform(get("/actuator/metrics/cache.gets")
+                            .param("tag", "cache:item", "result:hit"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.measurements[0].value").value(greaterThan(0.0)));
+        } finally {
+            deleteAllItems();
+        }
+    }
+
+    @Test
+    void testCreateItems_Batch() throws Exception {
+        ItemDTO invalid = TestDataBuilder.buildItemDTOWithoutId(3);
+        invalid.setName("");
+        ItemDTO duplicate = TestDataBuilder.buildItemDTOWithoutId(1);
+
+        mockMvc.perform(post("/api/items/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(item1, invalid, item2, duplicate))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.received").value(4))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.failures[0].index").value(1))
+                .andExpect(jsonPath("$.failures[0].message").value("name: Name is mandatory!"))
+                .andExpect(jsonPath("$.failures[1].index").value(3));
+
+        mockMvc.perform(get("/api/items"))
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void testCreateItems_NdjsonStream() throws Exception {
+        String body = objectMapper.writeValueAsString(item1) + "\n"
+                + "{not json}\n"
+                + objectMapper.writeValueAsString(item2) + "\n";
+
+        mockMvc.perform(post("/api/items/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.received").value(3))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.failures[0].index").value(1));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testProcessItems() throws Exception {
+        try {
+            String response = mockMvc.perform(post("/api/items")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(item1)))
+                    .andReturn().getResponse().getContentAsString();
+            ItemDTO saved = objectMapper.readValue(response, ItemDTO.class);
+
+            String jobResponse = mockMvc.perform(post("/api/items/process"))
+                    .andExpect(status().isAccepted())
+                    .andExpect(jsonPath("$.jobId").exists())
+                    .andReturn().getResponse().getContentAsString();
+            String jobId = objectMapper.readTree(jobResponse).get("jobId").asText();
+
+            ProcessingJobDTO job = awaitJob(jobId);
+
+            assertThat(job.getStatus()).isEqualTo(ProcessingJob.Status.COMPLETED);
+            assertThat(job.getProcessed()).isEqualTo(1);
+            assertThat(job.getProcessedIds()).containsExactly(saved.getId());
+            assertThat(job.getNextOffset()).isNull();
+
+            mockMvc.perform(get("/api/items/" + saved.getId()))
+                    .andExpect(jsonPath("$.status").value("PROCESSED"));
+
+            // A re-run only counts the processed items, nothing is read or updated again
+            String rerunResponse = mockMvc.perform(post("/api/items/process"))
+                    .andExpect(status().isAccepted())
+                    .andReturn().getResponse().getContentAsString();
+            ProcessingJobDTO rerun = awaitJob(objectMapper.readTree(rerunResponse).get("jobId").asText());
+
+            assertThat(rerun.getProcessed()).isZero();
+            assertThat(rerun.getSkipped()).isEqualTo(1);
+        } finally {
+            deleteAllItems();
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testPrometheus_shouldExposeServiceValidationAndProcessingMetrics() throws Exception {
+        try {
+            mockMvc.perform(post("/api/items")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(item1)))
+                    .andExpect(status().isCreated());
+            String jobResponse = mockMvc.perform(post("/api/items/process"))
+                    .andReturn().getResponse().getContentAsString();
+            awaitJob(objectMapper.readTree(jobResponse).get("jobId").asText());
+
+            String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            assertThat(scrape)
+                    .contains("items_service_seconds_count{class=\"com.siemens.internship.service.impl.ItemServiceImpl\"")
+                    .contains("method=\"save\"")
+                    .contains("method=\"processItemsAsync\"")
+                    .doesNotContain("items_mapping_seconds")
+                    .contains("items_validation_unique_email_seconds_count")
+                    .contains("executor_active_threads{name=\"processingExecutor\"")
+                    .contains("executor_queued_tasks{name=\"processingExecutor\"")
+                    .contains("executor_completed_tasks_total{name=\"processingExecutor\"")
+                    .contains("items_processing_throughput_items_per_second_bucket{status=\"COMPLETED\"");
+        } finally {
+            deleteAllItems();
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testRetryFailedItems_shouldOnlyWriteTheDeadLetteredItems() throws Exception {
+        try {
+            ItemDTO deadLettered = itemService.save(item1);
+            ItemDTO other = itemService.save(item2);
+            deadLetterRepository.save(new ProcessingDeadLetter(deadLettered.getId(), "IllegalStateException: Connection lost", 1, Instant.now()));
+
+            String jobResponse = mockMvc.perform(post("/api/items/process/retry-failed"))
+                    .andExpect(status().isAccepted())
+                    .andExpect(header().exists(HttpHeaders.LOCATION))
+                    .andReturn().getResponse().getContentAsString();
+            ProcessingJobDTO job = awaitJob(objectMapper.readTree(jobResponse).get("jobId").asText());
+
+            assertThat(job.getStatus()).isEqualTo(ProcessingJob.Status.COMPLETED);
+            assertThat(job.getTotal()).isEqualTo(1);
+            assertThat(job.getProcessedIds()).containsExactly(deadLettered.getId());
+            assertThat(deadLetterRepository.count()).isZero();
+            assertThat(itemService.findById(deadLettered.getId()).getStatus()).isEqualTo("PROCESSED");
+            assertThat(itemService.findById(other.getId()).getStatus()).isEqualTo("NEW");
+        } finally {
+            deadLetterRepository.deleteAll();
+            deleteAllItems();
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testStreamProcessingJob_shouldPushTheProgressUntilTheJobEnds() throws Exception {
+        try {
+            List<Long> ids = List.of(
+                    itemService.save(TestDataBuilder.buildItemDTOWithoutId(1)).getId(),
+                    itemService.save(TestDataBuilder.buildItemDTOWithoutId(2)).getId(),
+                    itemService.save(TestDataBuilder.buildItemDTOWithoutId(3)).getId());
+
+            String jobResponse = mockMvc.perform(post("/api/items/process"))
+                    .andExpect(status().isAccepted())
+                    .andReturn().getResponse().getContentAsString();
+            String jobId = objectMapper.readTree(jobResponse).get("jobId").asText();
+
+            List<ServerSentEvent> events = streamEvents(jobId, null);
+
+            assertThat(events).last().extracting(ServerSentEvent::name).isEqualTo("completed");
+            assertThat(events).filteredOn(event -> !event.name().equals("progress")).hasSize(1);
+            assertThat(events).flatExtracting(event -> event.data().getProcessedIds()).containsExactlyElementsOf(ids);
+            ProcessingJobDTO last = events.get(events.size() - 1).data();
+            assertThat(last.getProcessed()).isEqualTo(3);
+            assertThat(last.getItemsPerSecond()).isPositive();
+            assertThat(last.getNextOffset()).isNull();
+            assertThat(events.get(events.size() - 1).id()).isEqualTo("3");
+
+            // Reconnecting after the first id: the stream resumes there, a finished job ends right away
+            List<ServerSentEvent> resumed = streamEvents(jobId, "1");
+
+            assertThat(resumed).extracting(ServerSentEvent::name).containsExactly("completed");
+            assertThat(resumed.get(0).data().getProcessedIds()).containsExactlyElementsOf(ids.subList(1, 3));
+        } finally {
+            deleteAllItems();
+        }
+    }
+
+    @Test
+    void testGetProcessingJob_NotFound() throws Exception {
+        mockMvc.perform(get("/api/items/process/" + UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    private ProcessingJobDTO awaitJob(String jobId) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String response = mockMvc.perform(get("/api/items/process/" + jobId))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            ProcessingJobDTO job = objectMapper.readValue(response, ProcessingJobDTO.class);
+            if (job.getStatus() != ProcessingJob.Status.RUNNING) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Processing job " + jobId + " did not finish");
+    }
+
+    private List<ServerSentEvent> streamEvents(String jobId, String lastEventId) throws Exception {
+        MockHttpServletRequestBuilder eventsRequest = get("/api/items/process/" + jobId + "/events").accept(MediaType.TEXT_EVENT_STREAM);
+        if (lastEventId != null) {
+            eventsRequest.header("Last-Event-ID", lastEventId);
+        }
+        MvcResult result = mockMvc.perform(eventsRequest)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(10_000);
+
+        List<ServerSentEvent> events = new ArrayList<>();
+        for (String block : result.getResponse().getContentAsString().split("\n\n")) {
+            String name = null;
+            String id = null;
+            String data = null;
+            for (String line : block.split("\n")) {
+                if (line.startsWith("event:")) {
+                    name = line.substring("event:".length());
+                } else if (line.startsWith("id:")) {
+                    id = line.substring("id:".length());
+                } else if (line.startsWith("data:")) {
+                    data = line.substring("data:".length());
+                }
+            }
+            if (data != null) {
+                events.add(new ServerSentEvent(name, id, objectMapper.readValue(data, ProcessingJobDTO.class)));
+            }
+        }
+        return events;
+    }
+
+    private record ServerSentEvent(String name, String id, ProcessingJobDTO data) {
+    }
+
+    private ItemChangePageDTO getChanges(long since, int limit) throws Exception {
+        String response = mockMvc.perform(get("/api/items/changes")
+                        .param("since", String.valueOf(since))
+                        .param("limit", String.valueOf(limit)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, ItemChangePageDTO.class);
+    }
+
+    // Skips the changes left by earlier tests
+    private long latestChangeCursor() throws Exception {
+        long cursor = 0;
+        ItemChangePageDTO page;
+        do {
+            page = getChanges(cursor, 1000);
+            cursor = page.getNextCursor();
+        } while (!page.getChanges().isEmpty());
+        return cursor;
+    }
+
+    // Items are deleted through the service, so the email registry forgets them as well
+    private void deleteAllItems() {
+        itemService.findAll().forEach(item -> itemService.deleteById(item.getId()));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.siemens.internship.mapper;
+
+import com.siemens.internship.controller.dto.ItemDTO;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.utils.TestDataBuilder;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+class ItemMapperTest {
+
+    private final ItemMapper itemMapper = new ItemMapper();
+
+    @Test
+    void testToItemDTO() {
+        Item item = TestDataBuilder.buildItem(1);
+
+        ItemDTO itemDTO = itemMapper.toItemDTO(item);
+
+        assertThat(itemDTO).usingRecursiveComparison().isEqualTo(TestDataBuilder.buildItemDTO(1));
+    }
+
+    @Test
+    void testToItem() {
+        ItemDTO itemDTO = TestDataBuilder.buildItemDTO(1);
+
+        Item item = itemMapper.toItem(itemDTO);
+
+        assertThat(item).usingRecursiveComparison().isEqualTo(TestDataBuilder.buildItem(1));
+    }
+
+    @Test
+    void testNullInput() {
+        assertThat(itemMapper.toItem(null)).isNull();
+        assertThat(itemMapper.toItemDTO(null)).isNull();
+        assertThat(itemMapper.copy(null)).isNull();
+    }
+
+    @Test
+    void testCopy() {
+        ItemDTO source = TestDataBuilder.buildItemDTO(1);
+
+        ItemDTO copy = itemMapper.copy(source);
+
+        assertThat(copy).isNotSameAs(source).usingRecursiveComparison().isEqualTo(source);
+    }
+
+    @Test
+    void testApplyChanges_shouldOnlyChangeTheSentFields() {
+        ItemDTO changes = new ItemDTO();
+        changes.setDescription("Description 2");
+        changes.setStatus("PROCESSED");
+        Item target = TestDataBuilder.buildItem(1);
+
+        itemMapper.applyChanges(changes, target);
+
+        assertThat(target.getName()).isEqualTo("Item 1");
+        assertThat(target.getDescription()).isEqualTo("Description 2");
+        assertThat(target.getStatus()).isEqualTo(ItemStatus.PROCESSED);
+        assertThat(target.getEmail()).isEqualTo("item1@gmail.com");
+    }
+}
@@ -0,0 +1,115 @@
+package com.siemens.internship.outbox;
+
+import com.siemens.internship.model.ItemChange;
+import com.siemens.internship.repository.ItemChangeRepository;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Changes committed for real, from concurrent transactions: a consumer must never move its cursor past a change
+// that is committed later
+@SpringBootTest
+class ItemChangeLogTest {
+
+    @Autowired
+    private ItemChangeLog itemChangeLog;
+
+    @Autowired
+    private ItemChangeRepository itemChangeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setup() {
+        itemChangeRepository.deleteAll();
+    }
+
+    @Test
+    void testFindAfter_ChangeCommittedAfterALaterOne_shouldFollowTheCursor() throws Exception {
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> slowWriter = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            itemChangeLog.record(1L, ItemChange.Type.UPDATED, 2L);
+            recorded.countDown();
+            await(commit);
+        }));
+        await(recorded);
+
+        transactionTemplate.executeWithoutResult(status -> itemChangeLog.record(2L, ItemChange.Type.CREATED, 0L));
+        List<ItemChange> committed = itemChangeLog.findAfter(0L, 100);
+        assertThat(committed).extracting(ItemChange::getItemId).containsExactly(2L);
+        long cursor = committed.get(0).getPosition();
+
+        commit.countDown();
+        slowWriter.get(10, TimeUnit.SECONDS);
+
+        // The smaller id of the slow writer does not matter, its change is published after the cursor
+        List<ItemChange> changes = itemChangeLog.findAfter(cursor, 100);
+        assertThat(changes).extracting(ItemChange::getItemId).containsExactly(1L);
+        assertThat(changes.get(0).getId()).isLessThan(committed.get(0).getId());
+        assertThat(changes.get(0).getPosition()).isGreaterThan(cursor);
+        assertThat(itemChangeLog.findAfter(changes.get(0).getPosition(), 100)).isEmpty();
+    }
+
+    @Test
+    void testFindAfter_RolledBackChange_shouldNeitherAppearNorHoldBackOthers() {
+        transactionTemplate.executeWithoutResult(status -> {
+            itemChangeLog.record(1L, ItemChange.Type.DELETED, 1L);
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> itemChangeLog.recordProcessed(UUID.randomUUID(), versions(2L, 3L)));
+
+        assertThat(itemChangeLog.findAfter(0L, 100))
+                .extracting(ItemChange::getItemId, ItemChange::getType, ItemChange::getItemVersion)
+                .containsExactly(tuple(2L, ItemChange.Type.PROCESSED, 1L), tuple(3L, ItemChange.Type.PROCESSED, 1L));
+    }
+
+    @Test
+    void testFindProcessedIds_shouldPageOverTheChangesOfTheJobInCommitOrder() {
+        UUID jobId = UUID.randomUUID();
+        transactionTemplate.executeWithoutResult(status -> itemChangeLog.recordProcessed(jobId, versions(5L, 6L, 7L)));
+        transactionTemplate.executeWithoutResult(status -> itemChangeLog.recordProcessed(UUID.randomUUID(), versions(8L)));
+        transactionTemplate.executeWithoutResult(status -> itemChangeLog.recordProcessed(jobId, versions(1L, 2L)));
+
+        assertThat(itemChangeLog.findProcessedIds(jobId, 0, 4)).containsExactly(5L, 6L, 7L, 1L);
+        assertThat(itemChangeLog.findProcessedIds(jobId, 4, 4)).containsExactly(2L);
+        assertThat(itemChangeLog.findProcessedIds(jobId, 5, 4)).isEmpty();
+        assertThat(itemChangeLog.findProcessedIds(jobId, 0, 0)).isEmpty();
+    }
+
+    @Test
+    void testRecord_WithoutTransaction_shouldFail() {
+        assertThrows(IllegalTransactionStateException.class, () -> itemChangeLog.record(1L, ItemChange.Type.CREATED, 0L));
+    }
+
+    // Items at version 1 after their status transition, in the given order
+    private static Map<Long, Long> versions(Long... itemIds) {
+        Map<Long, Long> versions = new LinkedHashMap<>();
+        Arrays.stream(itemIds).forEach(itemId -> versions.put(itemId, 1L));
+        return versions;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.siemens.internship.processing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveWriteLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Batches of 100 to 1000 ids (400 at the start), up to 8 at a time, a target of 100 ms over windows of 10 commits
+    private final AdaptiveWriteLimiter limiter =
+            new AdaptiveWriteLimiter(400, 100, 1000, 8, Duration.ofMillis(100), 10, meterRegistry);
+
+    @Test
+    void testRecord_FastWindows_shouldGrowTheBatchSizeAndTheUsedConcurrency() throws InterruptedException {
+        // The writer never waits for a second batch: the concurrency stays where it is
+        for (int i = 0; i < 10; i++) {
+            commit(FAST);
+        }
+        assertThat(limiter.getBatchSize()).isEqualTo(500);
+        assertThat(limiter.getConcurrency()).isEqualTo(1);
+
+        // It waited (all of its concurrency was in use)
+        assertThat(limiter.tryAcquire(0)).isTrue();
+        assertThat(limiter.tryAcquire(0)).isFalse();
+        limiter.release();
+        for (int i = 0; i < 10; i++) {
+            commit(FAST);
+        }
+        assertThat(limiter.getBatchSize()).isEqualTo(600);
+        assertThat(limiter.getConcurrency()).isEqualTo(2);
+
+        for (int i = 0; i < 200; i++) {
+            commitAtTheLimit(FAST);
+        }
+        assertThat(limiter.getBatchSize()).isEqualTo(1000);
+        assertThat(limiter.getConcurrency()).isEqualTo(8);
+    }
+
+    @Test
+    void testRecord_SlowP99_shouldHalveBothLimitsDownToTheMinimum() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            commitAtTheLimit(FAST);
+        }
+        assertThat(limiter.getConcurrency()).isEqualTo(8);
+        assertThat(limiter.getBatchSize()).isEqualTo(1000);
+
+        // With ten commits per window, the p99 is the slowest one
+        for (int i = 0; i < 9; i++) {
+            commit(FAST);
+        }
+        commit(SLOW);
+        assertThat(limiter.getConcurrency()).isEqualTo(4);
+        assertThat(limiter.getBatchSize()).isEqualTo(500);
+
+        for (int i = 0; i < 100; i++) {
+            commit(SLOW);
+        }
+        assertThat(limiter.getConcurrency()).isEqualTo(1);
+        assertThat(limiter.getBatchSize()).isEqualTo(100);
+    }
+
+    @Test
+    void testTryAcquire_shouldWaitForAReleaseUntilTheTimeout() throws InterruptedException {
+        assertThat(limiter.tryAcquire(0)).isTrue();
+        long startedAt = System.nanoTime();
+        assertThat(limiter.tryAcquire(50)).isFalse();
+        assertThat(System.nanoTime() - startedAt).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+
+        Thread releasing = new Thread(() -> {
+            sleep(20);
+            limiter.release();
+        });
+        releasing.start();
+        assertThat(limiter.tryAcquire(5000)).isTrue();
+        releasing.join();
+    }
+
+    @Test
+    void testGauges_shouldReportTheCurrentLimits() {
+        for (int i = 0; i < 10; i++) {
+            commit(FAST);
+        }
+
+        assertThat(meterRegistry.get(AdaptiveWriteLimiter.CONCURRENCY_GAUGE).gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get(AdaptiveWriteLimiter.BATCH_SIZE_GAUGE).gauge().value()).isEqualTo(500);
+    }
+
+    private void commit(long latencyNanos) {
+        limiter.record(latencyNanos);
+    }
+
+    // A commit while the writer holds every batch the limiter lets in
+    private void commitAtTheLimit(long latencyNanos) throws InterruptedException {
+        int held = 0;
+        while (limiter.tryAcquire(0)) {
+            held++;
+        }
+        limiter.record(latencyNanos);
+        for (int i = 0; i < held; i++) {
+            limiter.release();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
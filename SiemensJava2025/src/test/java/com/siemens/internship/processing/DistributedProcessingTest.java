@@ -0,0 +1,299 @@
+package com.siemens.internship.processing;
+
+import com.siemens.internship.InternshipApplication;
+import com.siemens.internship.controller.ItemController;
+import com.siemens.internship.controller.dto.ItemDTO;
+import com.siemens.internship.model.ItemChange;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.outbox.ItemChangeLog;
+import com.siemens.internship.service.ItemService;
+import com.siemens.internship.utils.TestDataBuilder;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+// Three nodes: application contexts of their own on one file-based H2 database, ranges of 200 ids, caches following the outbox
+// every 100 ms
+class DistributedProcessingTest {
+
+    private static final Path DATABASE_DIRECTORY = Path.of("target", "distributed-processing");
+
+    private static final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void startNodes() throws IOException {
+        FileSystemUtils.deleteRecursively(DATABASE_DIRECTORY);
+        Files.createDirectories(DATABASE_DIRECTORY);
+        for (int i = 1; i <= 3; i++) {
+            nodes.add(new SpringApplicationBuilder(InternshipApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run("--spring.datasource.url=jdbc:h2:file:./" + DATABASE_DIRECTORY + "/items",
+                            "--spring.jpa.hibernate.ddl-auto=update",
+                            "--items.processing.node-id=node-" + i,
+                            "--items.processing.lease.range-size=200",
+                            "--items.processing.read-size=50",
+                            "--items.processing.write-batch-size=100",
+                            "--items.cache.invalidation-interval=100ms",
+                            "--logging.level.root=WARN"));
+        }
+        jdbcTemplate = nodes.get(0).getBean(JdbcTemplate.class);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+        nodes.clear();
+    }
+
+    @BeforeEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM item");
+        jdbcTemplate.update("DELETE FROM item_change");
+        jdbcTemplate.update("DELETE FROM processing_lease");
+        jdbcTemplate.update("DELETE FROM processing_dead_letter");
+    }
+
+    @Test
+    void testRun_SeveralNodes_shouldProcessEveryItemExactlyOnce() {
+        seedItems(2000);
+
+        List<ProcessingJob> jobs = nodes.stream()
+                .map(node -> CompletableFuture.supplyAsync(() -> pipeline(node).run(new ProcessingJob())))
+                .toList()
+                .stream()
+                .map(CompletableFuture::join)
+                .toList();
+
+        assertThat(jobs).extracting(ProcessingJob::getStatus).containsOnly(ProcessingJob.Status.COMPLETED);
+        // No id processed by two nodes, none left out
+        List<Long> processedIds = IntStream.range(0, jobs.size())
+                .mapToObj(i -> processedIds(nodes.get(i), jobs.get(i)))
+                .flatMap(List::stream)
+                .toList();
+        assertThat(processedIds).containsExactlyInAnyOrderElementsOf(LongStream.rangeClosed(1, 2000).boxed().toList());
+        assertThat(jobs.stream().mapToLong(job -> job.getProcessed().get()).sum()).isEqualTo(2000);
+        assertThat(countItems(ItemStatus.NEW)).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT item_id FROM item_change WHERE type = 'PROCESSED' GROUP BY item_id HAVING COUNT(*) > 1)",
+                Long.class)).isZero();
+        // Every item went from version 0 to 1
+        assertThat(jdbcTemplate.queryForList("SELECT DISTINCT item_version FROM item_change", Long.class)).containsExactly(1L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM processing_lease WHERE completed_at IS NULL", Long.class)).isZero();
+    }
+
+    @Test
+    void testFindAfter_WhileSeveralNodesProcess_shouldSkipNoChange() {
+        seedItems(2000);
+
+        List<CompletableFuture<ProcessingJob>> jobs = nodes.stream()
+                .map(node -> CompletableFuture.supplyAsync(() -> pipeline(node).run(new ProcessingJob())))
+                .toList();
+        // Every node has a consumer of its own, tailing the change stream while all of them write
+        List<CompletableFuture<List<ItemChange>>> consumers = nodes.stream()
+                .map(node -> CompletableFuture.supplyAsync(() -> tail(node.getBean(ItemChangeLog.class),
+                        CompletableFuture.allOf(jobs.toArray(CompletableFuture[]::new)))))
+                .toList();
+
+        assertThat(jobs).extracting(CompletableFuture::join)
+                .extracting(ProcessingJob::getStatus)
+                .containsOnly(ProcessingJob.Status.COMPLETED);
+        List<Long> changeIds = jdbcTemplate.queryForList("SELECT id FROM item_change", Long.class);
+        assertThat(changeIds).hasSize(2000);
+        for (CompletableFuture<List<ItemChange>> consumer : consumers) {
+            List<ItemChange> changes = consumer.join();
+            assertThat(changes).extracting(ItemChange::getId).containsExactlyInAnyOrderElementsOf(changeIds);
+            assertThat(changes).extracting(ItemChange::getType).containsOnly(ItemChange.Type.PROCESSED);
+            assertThat(changes).extracting(ItemChange::getPosition).isSorted().doesNotHaveDuplicates();
+        }
+    }
+
+    @Test
+    void testRun_LeasesOfOtherNodes_shouldBeSkippedUntilTheyExpire() {
+        seedItems(700);
+        // A dead node committed 200-299 before it stopped, a live node holds 400-599
+        jdbcTemplate.update("UPDATE item SET status = ? WHERE id BETWEEN 200 AND 299", ItemStatus.PROCESSED.getCode());
+        insertLease(200, "dead-node", Instant.now().minusSeconds(60), 299);
+        insertLease(400, "live-node", Instant.now().plusSeconds(3600), 399);
+
+        ProcessingJob job = pipeline(nodes.get(0)).run(new ProcessingJob());
+
+        assertThat(job.getStatus()).isEqualTo(ProcessingJob.Status.COMPLETED);
+        List<Long> expected = new ArrayList<>(LongStream.rangeClosed(1, 199).boxed().toList());
+        expected.addAll(LongStream.rangeClosed(300, 399).boxed().toList());
+        expected.addAll(LongStream.rangeClosed(600, 700).boxed().toList());
+        assertThat(processedIds(nodes.get(0), job)).isEqualTo(expected);
+        assertThat(countItems(ItemStatus.NEW)).isEqualTo(200);
+        assertThat(jdbcTemplate.queryForObject("SELECT owner FROM processing_lease WHERE range_start = 400", String.class))
+                .isEqualTo("live-node");
+
+        // The live node dies as well: its range is taken over by the next run
+        jdbcTemplate.update("UPDATE processing_lease SET expires_at = ? WHERE range_start = 400", Instant.now().minusSeconds(1));
+        ProcessingJob takeOver = pipeline(nodes.get(1)).run(new ProcessingJob());
+
+        assertThat(processedIds(nodes.get(1), takeOver)).isEqualTo(LongStream.rangeClosed(400, 599).boxed().toList());
+        assertThat(countItems(ItemStatus.NEW)).isZero();
+    }
+
+    @Test
+    void testClaim_shouldHandOutEveryRangeOnceAndFenceTheFormerOwner() {
+        ProcessingLeases first = nodes.get(0).getBean(ProcessingLeases.class);
+        ProcessingLeases second = nodes.get(1).getBean(ProcessingLeases.class);
+        Instant runStartedAt = Instant.now();
+
+        ProcessingLeases.Lease lease = first.claim(250, runStartedAt).orElseThrow();
+        assertThat(lease).isEqualTo(new ProcessingLeases.Lease(200, 399, 199));
+        assertThat(second.claim(399, runStartedAt)).isEmpty();
+
+        first.complete(lease);
+        // Completed during the run of the second node, but not before the next one
+        assertThat(second.claim(300, runStartedAt)).isEmpty();
+        ProcessingLeases.Lease next = second.claim(300, Instant.now()).orElseThrow();
+        assertThat(next.resumeAfterId()).isEqualTo(199);
+
+        // The former owner can no longer write the range
+        TransactionTemplate transactionTemplate = nodes.get(0).getBean(TransactionTemplate.class);
+        assertThrows(LeaseLostException.class, () ->
+                transactionTemplate.executeWithoutResult(status -> first.renew(lease, 250)));
+    }
+
+    @Test
+    void testFindById_ItemUpdatedOnAnotherNode_shouldBeEvicted() throws InterruptedException {
+        ItemService first = nodes.get(0).getBean(ItemService.class);
+        ItemService second = nodes.get(1).getBean(ItemService.class);
+        ItemDTO item = first.save(TestDataBuilder.buildItemDTOWithoutId(1));
+        assertThat(first.findById(item.getId()).getName()).isEqualTo("Item 1");
+        assertThat(first.findVersion(item.getId())).isEqualTo(item.getVersion());
+
+        ItemDTO changes = new ItemDTO();
+        changes.setName("Updated");
+        changes.setVersion(item.getVersion());
+        ItemDTO updated = second.update(item.getId(), changes);
+
+        assertThat(eventually(() -> first.findVersion(item.getId()), updated.getVersion()::equals)).isEqualTo(updated.getVersion());
+        assertThat(first.findById(item.getId()).getName()).isEqualTo("Updated");
+        // If-Match with the version the other node answered
+        changes.setName("Updated again");
+        changes.setVersion(updated.getVersion());
+        assertThat(first.update(item.getId(), changes).getVersion()).isEqualTo(updated.getVersion() + 1);
+
+        second.deleteById(item.getId());
+        assertThat(eventually(() -> first.findAllById(List.of(item.getId())).getMissingIds(), ids -> !ids.isEmpty()))
+                .containsExactly(item.getId());
+    }
+
+    @Test
+    void testGetAllItems_ItemCreatedOnAnotherNode_shouldChangeTheETag() {
+        ItemController first = nodes.get(0).getBean(ItemController.class);
+        ItemController second = nodes.get(1).getBean(ItemController.class);
+        nodes.get(0).getBean(ItemService.class).save(TestDataBuilder.buildItemDTOWithoutId(1));
+
+        String eTag = first.getAllItems(getAllItems(null)).getHeaders().getETag();
+        assertThat(eTag).isNotNull();
+        // The tag is the same on every node
+        assertThat(second.getAllItems(getAllItems(eTag))).isNull();
+
+        nodes.get(1).getBean(ItemService.class).save(TestDataBuilder.buildItemDTOWithoutId(2));
+
+        ResponseEntity<List<ItemDTO>> changed = first.getAllItems(getAllItems(eTag));
+        assertThat(changed).isNotNull();
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(eTag);
+        assertThat(changed.getBody()).extracting(ItemDTO::getName).containsExactlyInAnyOrder("Item 1", "Item 2");
+        assertThat(first.getAllItems(getAllItems(changed.getHeaders().getETag()))).isNull();
+    }
+
+    private static ServletWebRequest getAllItems(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
+    private static ItemProcessingPipeline pipeline(ConfigurableApplicationContext node) {
+        return node.getBean(ItemProcessingPipeline.class);
+    }
+
+    // The ids the job wrote, read from the outbox of the node that ran it in pages of 500, in id order
+    private static List<Long> processedIds(ConfigurableApplicationContext node, ProcessingJob job) {
+        ItemChangeLog itemChangeLog = node.getBean(ItemChangeLog.class);
+        List<Long> ids = new ArrayList<>();
+        List<Long> page;
+        do {
+            page = itemChangeLog.findProcessedIds(job.getId(), ids.size(), 500);
+            ids.addAll(page);
+        } while (!page.isEmpty());
+        return ids.stream().sorted().toList();
+    }
+
+    // Reads pages of 100 after its cursor until the writers are done, then the rest
+    private static List<ItemChange> tail(ItemChangeLog itemChangeLog, CompletableFuture<Void> writers) {
+        List<ItemChange> changes = new ArrayList<>();
+        long cursor = 0L;
+        boolean done = false;
+        while (true) {
+            List<ItemChange> page = itemChangeLog.findAfter(cursor, 100);
+            changes.addAll(page);
+            if (!page.isEmpty()) {
+                cursor = page.get(page.size() - 1).getPosition();
+            } else if (done) {
+                return changes;
+            } else {
+                done = writers.isDone();
+            }
+        }
+    }
+
+    // The caches of the other nodes follow the outbox every 100 ms
+    private static <T> T eventually(Supplier<T> read, Predicate<T> condition) throws InterruptedException {
+        T value = read.get();
+        for (int attempt = 0; attempt < 100 && !condition.test(value); attempt++) {
+            Thread.sleep(50);
+            value = read.get();
+        }
+        return value;
+    }
+
+    // Items get the ids 1..count, written with plain JDBC next to the nodes
+    private static void seedItems(int count) {
+        List<Object[]> rows = LongStream.rangeClosed(1, count)
+                .mapToObj(id -> new Object[]{id, "Item " + id, "Description " + id, ItemStatus.NEW.getCode(), "item" + id + "@gmail.com", 0L})
+                .toList();
+        jdbcTemplate.batchUpdate("INSERT INTO item (id, name, description, status, email, version) VALUES (?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    private static void insertLease(long rangeStart, String owner, Instant expiresAt, long lastId) {
+        jdbcTemplate.update("INSERT INTO processing_lease (range_start, owner, expires_at, last_id) VALUES (?, ?, ?, ?)",
+                rangeStart, owner, expiresAt, lastId);
+    }
+
+    private static long countItems(ItemStatus status) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item WHERE status = ?", Long.class, status.getCode());
+    }
+}
@@ -0,0 +1,416 @@
+package com.siemens.internship.processing;
+
+import com.siemens.internship.cache.ItemCache;
+import com.siemens.internship.config.InteractiveLoad;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.model.ProcessingDeadLetter;
+import com.siemens.internship.outbox.ItemChangeLog;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.repository.ProcessingDeadLetterRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class ItemProcessingPipelineTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ProcessingLeases leases;
+
+    @Mock
+    private ProcessingDeadLetterRepository deadLetterRepository;
+
+    @Mock
+    private ItemCache itemCache;
+
+    @Mock
+    private ItemChangeLog itemChangeLog;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private InteractiveLoad interactiveLoad;
+
+    @InjectMocks
+    private ItemProcessingPipeline pipeline;
+
+    private ExecutorService executor;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    // The ids of the PROCESSED changes whose (inline) transaction committed, in the order of the commits
+    private final List<Long> committedChanges = new CopyOnWriteArrayList<>();
+
+    private final ThreadLocal<List<Long>> pendingChanges = ThreadLocal.withInitial(ArrayList::new);
+
+    @BeforeEach
+    void setup() {
+        // Transformer, writer and two concurrent write batches
+        executor = Executors.newFixedThreadPool(4);
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(pipeline, "executor", executor);
+        ReflectionTestUtils.setField(pipeline, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(pipeline, "readSize", 2);
+        ReflectionTestUtils.setField(pipeline, "writeLimiter", writeLimiter(1, 1000));
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 1);
+        ReflectionTestUtils.setField(pipeline, "maxAttempts", 2);
+        ReflectionTestUtils.setField(pipeline, "initialBackoff", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(pipeline, "maxBackoff", Duration.ofMillis(1));
+        lenient().doAnswer(invocation -> pendingChanges.get().addAll(invocation.<Map<Long, Long>>getArgument(1).keySet()))
+                .when(itemChangeLog).recordProcessed(any(), anyMap());
+        // Every item of a batch is still new when it is written
+        lenient().when(itemRepository.updateStatusByIdIn(anyList(), any())).thenAnswer(invocation -> versions(invocation.getArgument(0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testRun_shouldWriteInBatchesAndRenewTheLease() {
+        runTransactionsInline();
+        ProcessingLeases.Lease lease = givenLease(0, 99, -1);
+        List<Long> ids = LongStream.rangeClosed(1, 10).boxed().toList();
+        givenNewItems(ids, 12);
+
+        ProcessingJob job = pipeline.run(new ProcessingJob());
+
+        assertThat(job.getStatus()).isEqualTo(ProcessingJob.Status.COMPLETED);
+        assertThat(job.getTotal()).isEqualTo(12);
+        assertThat(job.getSkipped().get()).isEqualTo(2);
+        assertThat(job.getProcessed().get()).isEqualTo(10);
+        assertThat(committedIds()).isEqualTo(ids);
+
+        verify(itemRepository).updateStatusByIdIn(List.of(1L, 2L, 3L, 4L), ItemStatus.PROCESSED);
+        verify(itemRepository).updateStatusByIdIn(List.of(5L, 6L, 7L, 8L), ItemStatus.PROCESSED);
+        verify(itemRepository).updateStatusByIdIn(List.of(9L, 10L), ItemStatus.PROCESSED);
+        verify(leases).renew(lease, 4L);
+        verify(leases).renew(lease, 8L);
+        verify(leases).renew(lease, 10L);
+        verify(leases).complete(lease);
+        verify(itemCache).evictAll(List.of(9L, 10L));
+        verify(itemChangeLog).recordProcessed(job.getId(), versions(List.of(1L, 2L, 3L, 4L)));
+        verify(itemChangeLog).recordProcessed(job.getId(), versions(List.of(5L, 6L, 7L, 8L)));
+        verify(itemChangeLog).recordProcessed(job.getId(), versions(List.of(9L, 10L)));
+
+        DistributionSummary throughput = meterRegistry.get(ItemProcessingPipeline.THROUGHPUT_SUMMARY)
+                .tag("status", "COMPLETED").summary();
+        assertThat(throughput.count()).isEqualTo(1);
+        assertThat(throughput.totalAmount()).isPositive();
+        assertThat(meterRegistry.get(ItemProcessingPipeline.JOB_TIMER).tag("status", "COMPLETED").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testRun_ConcurrentBatches_shouldRenewTheLeaseUpToTheOldestPendingBatch() {
+        // Two batches at a time once one commit met the latency target
+        AdaptiveWriteLimiter writeLimiter = writeLimiter(2, 1);
+        ReflectionTestUtils.setField(pipeline, "writeLimiter", writeLimiter);
+        runTransactionsInline();
+        ProcessingLeases.Lease lease = givenLease(0, 99, -1);
+        givenNewItems(LongStream.rangeClosed(1, 12).boxed().toList(), 12);
+        // Items 5-8 are only written once 1-4 and 9-12 are committed, so 9-12 have to be written next to them
+        CountDownLatch committed = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            committed.countDown();
+            return null;
+        }).when(leases).renew(eq(lease), anyLong());
+        when(itemRepository.updateStatusByIdIn(anyList(), eq(ItemStatus.PROCESSED))).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            if (ids.contains(5L) && !committed.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("The batches were written one after the other");
+            }
+            return versions(ids);
+        });
+
+        ProcessingJob job = pipeline.run(new ProcessingJob());
+
+        assertThat(job.getStatus()).isEqualTo(ProcessingJob.Status.COMPLETED);
+        assertThat(committedIds()).isEqualTo(LongStream.rangeClosed(1, 12).boxed().toList());
+        assertThat(writeLimiter.getConcurrency()).isEqualTo(2);
+        // 9-12 were committed while 5-8 were pending: the lease only moved up to 4, then 5-8 moved it to 8
+        verify(leases, times(2)).renew(lease, 4L);
+        verify(leases).renew(lease, 8L);
+        verify(leases, never()).renew(lease, 12L);
+        verify(leases).complete(lease);
+    }
+
+    @Test
+    void testRun_ItemDeletedDuringTheWrite_shouldBeSkipped() {
+        runTransactionsInline();
+        ProcessingLeases.Lease lease = givenLease(0, 99, -1);
+        givenNewItems(LongStream.rangeClosed(1, 8).boxed().toList(), 8);
+        // Item 6 was read as new, but deleted before its batch locked the rows
+        when(itemRepository.updateStatusByIdIn(anyList(), eq(ItemStatus.PROCESSED))).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return versions(ids.stream().filter(id -> id != 6L).toList());
+        });
+
+        ProcessingJob job = pipeline.run(new ProcessingJob());
+
+        assertThat(job.getStatus()).isEqualTo(ProcessingJob.Status.COMPLETED);
+        assertThat(job.getProcessed().get()).isEqualTo(7);
+        assertThat(job.getSkipped().get()).isEqualTo(1);
+        assertThat(committedIds()).containsExactly(1L, 2L, 3L, 4L, 5L, 7L, 8L);
+        verify(itemChangeLog).recordProcessed(job.getId(), versions(List.of(5L, 7L, 8L)));
+        verify(itemCache).evictAll(List.of(5L, 7L, 8L));
+        // The lease still moves past the whole batch
+        verify(leases).renew(lease, 8L);
+        verify(leases).complete(lease);
+    }
+
+    @Test
+    void testRun_TakenOverLease_shouldResumeAfterItsLastId() {
+        runTransactionsInline();
+        givenLease(0, 99, 6);
+        givenNewItems(List.of(3L, 7L, 8L), 8);
+
+        ProcessingJob job = pipeline.run(new ProcessingJob());
+
+        assertThat(job.getStatus()).isEqualTo(ProcessingJob.Status.COMPLETED);
+        assertThat(committedIds()).containsExactly(7L, 8L);
+        verify(itemRepository).findIdsByStatusInRange(ItemStatus.NEW, 6L, 99L, Limit.of(2));
+        verify(itemRepository, never()).findIdsByStatusInRange(ItemStatus.NEW, -1L, 99L, Limit.of(2));
+    }
+
+    @Test
+    void testRun_RangeHeldByAnotherNode_shouldBeSkipped() {
+        runTransactionsInline();
+        when(leases.claim(longThat(id -> id <= 4), any(Instant.class))).thenReturn(Optional.empty());
+        when(leases.lastIdOfRange(longThat(id -> id <= 4))).thenReturn(4L);
+        ProcessingLeases.Lease lease = givenLease(5, 9, 4);
+        givenNewItems(LongStream.rangeClosed(1, 8).boxed().toList(), 8);
+
+        ProcessingJob job = pipeline.run(new ProcessingJob());
+
+        assertThat(job.getStatus()).isEqualTo(ProcessingJob.Status.COMPLETED);
+        assertThat(committedIds()).containsExactly(5L, 6L, 7L, 8L);
+        verify(itemRepository).updateStatusByIdIn(List.of(5L, 6L, 7L, 8L), ItemStatus.PROCESSED);
+        verify(itemRepository, times(1)).updateStatusByIdIn(anyList(), any());
+        verify(itemRepository).findIdsByStatusAndIdGreaterThan(ItemStatus.NEW, 4L, Limit.of(1));
+        verify(leases).complete(lease);
+    }
+
+    @Test
+    void testRun_LostLease_shouldLeaveTheRestOfTheRangeToTheNewOwner() {
+        runTransactionsInline();
+        ProcessingLeases.Lease first = givenLease(0, 9, -1);
+        ProcessingLeases.Lease second = givenLease(10, 19, 9);
+        givenNewItems(LongStream.rangeClosed(1, 12).boxed().toList(), 12);
+        // Taken over by another node while items 5-8 were being written
+        doAnswer(invocation -> {
+            if (invocation.getArgument(0).equals(first) && invocation.<Long>getArgument(1) >= 8L) {
+                throw new LeaseLostException("The lease of the items 0-9 was taken over");
+            }
+            return null;
+        }).when(leases).renew(any(), anyLong());
+
+        ProcessingJob job = pipeline.run(new ProcessingJob());
+
+        assertThat(job.getStatus()).isEqualTo(ProcessingJob.Status.COMPLETED);
+        assertThat(committedIds()).containsExactly(1L, 2L, 3L, 4L, 10L, 11L, 12L);
+        assertThat(job.getFailed().get()).isZero();
+        // Rolled back, neither retried nor written one by one; item 9 is rolled back the same way
+        verify(leases, times(1)).renew(first, 8L);
+        verify(itemRepository, times(1)).updateStatusByIdIn(List.of(5L, 6L, 7L, 8L), ItemStatus.PROCESSED);
+        verify(itemRepository, never()).updateStatusByIdIn(List.of(5L), ItemStatus.PROCESSED);
+        verify(leases, times(1)).renew(first, 9L);
+        verify(itemRepository).updateStatusByIdIn(List.of(10L, 11L, 12L), ItemStatus.PROCESSED);
+        verify(leases, never()).complete(first);
+        verify(leases).complete(second);
+        verify(deadLetterRepository, never()).save(any());
+    }
+
+    @Test
+    void testRun_FailingItem_shouldBeRetriedThenDeadLettered() {
+        runTransactionsInline();
+        ProcessingLeases.Lease lease = givenLease(0, 99, -1);
+        givenNewItems(LongStream.rangeClosed(1, 10).boxed().toList(), 10);
+        // Item 5 fails, alone or in its batch
+        when(itemRepository.updateStatusByIdIn(anyList(), eq(ItemStatus.PROCESSED))).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            if (ids.contains(5L)) {
+                throw new IllegalStateException("Value too long");
+            }
+            return versions(ids);
+        });
+
+        ProcessingJob job = pipeline.run(new ProcessingJob());
+
+        assertThat(job.getStatus()).isEqualTo(ProcessingJob.Status.COMPLETED);
+        assertThat(job.getProcessed().get()).isEqualTo(9);
+        assertThat(job.getFailed().get()).isEqualTo(1);
+        assertThat(committedIds()).containsExactly(1L, 2L, 3L, 4L, 6L, 7L, 8L, 9L, 10L);
+
+        // The batch twice (one retry), then every item of it alone
+        verify(itemRepository, times(2)).updateStatusByIdIn(List.of(5L, 6L, 7L, 8L), ItemStatus.PROCESSED);
+        verify(itemRepository).updateStatusByIdIn(List.of(5L), ItemStatus.PROCESSED);
+        verify(itemRepository).updateStatusByIdIn(List.of(8L), ItemStatus.PROCESSED);
+
+        ArgumentCaptor<ProcessingDeadLetter> deadLetter = ArgumentCaptor.forClass(ProcessingDeadLetter.class);
+        verify(deadLetterRepository).save(deadLetter.capture());
+        assertThat(deadLetter.getValue().getItemId()).isEqualTo(5L);
+        assertThat(deadLetter.getValue().getCause()).isEqualTo("IllegalStateException: Value too long");
+        assertThat(deadLetter.getValue().getAttempts()).isEqualTo(1);
+        // By the dead letter of item 5: its failed write rolled back before the lease
+        verify(leases, times(1)).renew(lease, 5L);
+        verify(leases).complete(lease);
+
+        assertThat(meterRegistry.get(ItemProcessingPipeline.ERRORS_COUNTER).tag("outcome", "retried").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(ItemProcessingPipeline.ERRORS_COUNTER).tag("outcome", "dead-lettered").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testRun_DatabaseDown_shouldStopAndKeepTheLease() {
+        runTransactionsInline();
+        ProcessingLeases.Lease lease = givenLease(0, 99, -1);
+        givenNewItems(LongStream.rangeClosed(1, 10).boxed().toList(), 10);
+        // Gone after the first batch, dead-lettering fails as well
+        when(itemRepository.updateStatusByIdIn(anyList(), eq(ItemStatus.PROCESSED))).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            if (ids.get(0) > 4) {
+                throw new IllegalStateException("Connection lost");
+            }
+            return versions(ids);
+        });
+        when(deadLetterRepository.save(any(ProcessingDeadLetter.class))).thenThrow(new IllegalStateException("Connection lost"));
+
+        ProcessingJob job = pipeline.run(new ProcessingJob());
+
+        assertThat(job.getStatus()).isEqualTo(ProcessingJob.Status.FAILED);
+        assertThat(job.getError()).isEqualTo("Writing items failed: Connection lost");
+        assertThat(job.getProcessed().get()).isEqualTo(4);
+        verify(leases).renew(lease, 4L);
+        verify(leases, never()).complete(any());
+        verify(itemChangeLog, never()).recordProcessed(job.getId(), versions(List.of(5L, 6L, 7L, 8L)));
+        assertThat(meterRegistry.get(ItemProcessingPipeline.ERRORS_COUNTER).tag("outcome", "stopped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testRetryFailed_shouldOnlyWriteTheDeadLetteredItems() {
+        runTransactionsInline();
+        when(deadLetterRepository.count()).thenReturn(2L);
+        when(deadLetterRepository.findItemIdsAfter(0L, Limit.of(2))).thenReturn(List.of(3L, 7L));
+        when(deadLetterRepository.findItemIdsAfter(7L, Limit.of(2))).thenReturn(List.of());
+
+        ProcessingJob job = pipeline.retryFailed(new ProcessingJob());
+
+        assertThat(job.getStatus()).isEqualTo(ProcessingJob.Status.COMPLETED);
+        assertThat(job.getTotal()).isEqualTo(2);
+        assertThat(committedIds()).containsExactly(3L, 7L);
+        verify(itemRepository).updateStatusByIdIn(List.of(3L, 7L), ItemStatus.PROCESSED);
+        verify(deadLetterRepository).deleteByItemIdIn(List.of(3L, 7L));
+        verify(itemRepository, never()).findIdsByStatusAndIdGreaterThan(any(), anyLong(), any());
+        verifyNoInteractions(leases);
+    }
+
+    @Test
+    void testRun_FailedRead_shouldFailTheJob() {
+        when(itemRepository.count()).thenReturn(2L);
+        when(itemRepository.countByStatus(ItemStatus.NEW)).thenReturn(2L);
+        when(itemRepository.findIdsByStatusAndIdGreaterThan(ItemStatus.NEW, 0L, Limit.of(1)))
+                .thenThrow(new IllegalStateException("Connection lost"));
+
+        ProcessingJob job = pipeline.run(new ProcessingJob());
+
+        assertThat(job.getStatus()).isEqualTo(ProcessingJob.Status.FAILED);
+        assertThat(job.getError()).isEqualTo("Reading items failed: Connection lost");
+        verifyNoInteractions(leases);
+        assertThat(meterRegistry.get(ItemProcessingPipeline.JOB_TIMER).tag("status", "FAILED").timer().count()).isEqualTo(1);
+    }
+
+    // Serves the ids through the keyset queries, like the database would: the next id, then the ids within a range
+    private void givenNewItems(List<Long> ids, long total) {
+        when(itemRepository.count()).thenReturn(total);
+        when(itemRepository.countByStatus(ItemStatus.NEW)).thenReturn((long) ids.size());
+        when(itemRepository.findIdsByStatusAndIdGreaterThan(eq(ItemStatus.NEW), anyLong(), eq(Limit.of(1))))
+                .thenAnswer(invocation -> {
+                    long lastId = invocation.getArgument(1);
+                    return ids.stream().filter(id -> id > lastId).limit(1).toList();
+                });
+        when(itemRepository.findIdsByStatusInRange(eq(ItemStatus.NEW), anyLong(), anyLong(), eq(Limit.of(2))))
+                .thenAnswer(invocation -> {
+                    long lastId = invocation.getArgument(1);
+                    long maxId = invocation.getArgument(2);
+                    return ids.stream().filter(id -> id > lastId && id <= maxId).limit(2).toList();
+                });
+    }
+
+    // This node gets the lease of the range whenever it asks for it
+    private ProcessingLeases.Lease givenLease(long firstId, long lastId, long resumeAfterId) {
+        ProcessingLeases.Lease lease = new ProcessingLeases.Lease(firstId, lastId, resumeAfterId);
+        when(leases.claim(longThat(id -> id >= firstId && id <= lastId), any(Instant.class))).thenReturn(Optional.of(lease));
+        when(leases.lastIdOfRange(longThat(id -> id >= firstId && id <= lastId))).thenReturn(lastId);
+        return lease;
+    }
+
+    // Batches of 4 ids; every window of commits is within the latency target of an hour, so the concurrency grows when used
+    private static AdaptiveWriteLimiter writeLimiter(int maxConcurrency, int window) {
+        return new AdaptiveWriteLimiter(4, 4, 4, maxConcurrency, Duration.ofHours(1), window, new SimpleMeterRegistry());
+    }
+
+    // The outbox rows of a transaction that throws are rolled back with it
+    private void runTransactionsInline() {
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            pendingChanges.get().clear();
+            action.accept(null);
+            committedChanges.addAll(pendingChanges.get());
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    // Every item was at version 0 before the status transition
+    private static Map<Long, Long> versions(List<Long> ids) {
+        Map<Long, Long> versions = new LinkedHashMap<>();
+        ids.forEach(id -> versions.put(id, 1L));
+        return versions;
+    }
+
+    private List<Long> committedIds() {
+        return committedChanges.stream().sorted().toList();
+    }
+}
@@ -0,0 +1,40 @@
+package com.siemens.internship.processing;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+class ProcessingJobTest {
+
+    @Test
+    void testRecordProcessed_shouldOnlyCount() {
+        ProcessingJob job = new ProcessingJob();
+        AtomicInteger signals = new AtomicInteger();
+        job.addListener(signals::incrementAndGet);
+
+        job.recordProcessed(1000);
+        job.recordProcessed(0);
+        job.recordProcessed(4);
+
+        assertThat(job.getProcessed().get()).isEqualTo(1004);
+        // An empty batch changes nothing
+        assertThat(signals).hasValue(2);
+    }
+
+    @Test
+    void testListeners_shouldBeToldAboutEveryChangeUntilRemoved() {
+        ProcessingJob job = new ProcessingJob();
+        AtomicInteger signals = new AtomicInteger();
+        Runnable listener = signals::incrementAndGet;
+        job.addListener(listener);
+
+        job.recordProcessed(2);
+        job.recordFailed(1);
+        job.complete();
+        assertThat(signals).hasValue(3);
+
+        job.removeListener(listener);
+        job.recordFailed(1);
+        assertThat(signals).hasValue(3);
+    }
+}
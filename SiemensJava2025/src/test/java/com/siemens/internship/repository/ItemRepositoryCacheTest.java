@@ -0,0 +1,104 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.utils.TestDataBuilder;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// The second-level cache is only populated when a transaction commits, so these tests run without the test transaction
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ItemRepositoryCacheTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void cleanUp() {
+        statistics().setStatisticsEnabled(false);
+        itemRepository.deleteAll();
+    }
+
+    @Test
+    void testFindById_shouldBeServedFromEntityCache() {
+        Item saved = itemRepository.save(TestDataBuilder.buildItemWithoutId(1));
+        itemRepository.findById(saved.getId());
+        Statistics statistics = clearedStatistics();
+
+        assertThat(itemRepository.findById(saved.getId())).isPresent();
+
+        assertThat(statistics.getDomainDataRegionStatistics(Item.CACHE_REGION).getHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void testFindByEmail_shouldBeServedFromNaturalIdCache() {
+        itemRepository.save(TestDataBuilder.buildItemWithoutId(1));
+        itemRepository.findByEmail("item1@gmail.com");
+        Statistics statistics = clearedStatistics();
+
+        assertThat(itemRepository.findByEmail("item1@gmail.com")).isPresent();
+
+        assertThat(statistics.getNaturalIdCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void testFindByEmail_afterEmailChange_shouldResolveNewEmail() {
+        Item saved = itemRepository.save(TestDataBuilder.buildItemWithoutId(1));
+        itemRepository.findByEmail("item1@gmail.com");
+
+        saved.setEmail("changed@gmail.com");
+        itemRepository.save(saved);
+
+        assertThat(itemRepository.findByEmail("item1@gmail.com")).isNotPresent();
+        assertThat(itemRepository.findByEmail("changed@gmail.com")).map(Item::getId).contains(saved.getId());
+    }
+
+    @Test
+    void testDeleteById_shouldEvictCachedItem() {
+        Item saved = itemRepository.save(TestDataBuilder.buildItemWithoutId(1));
+        itemRepository.findById(saved.getId());
+        itemRepository.findByEmail("item1@gmail.com");
+
+        itemRepository.deleteById(saved.getId());
+
+        assertThat(itemRepository.findById(saved.getId())).isNotPresent();
+        assertThat(itemRepository.findByEmail("item1@gmail.com")).isNotPresent();
+    }
+
+    @Test
+    void testUpdateStatusByIdIn_shouldEvictCachedItems() {
+        Item saved = itemRepository.save(TestDataBuilder.buildItemWithoutId(1));
+        itemRepository.findById(saved.getId());
+
+        itemRepository.updateStatusByIdIn(List.of(saved.getId()), ItemStatus.PROCESSED);
+
+        assertThat(itemRepository.findById(saved.getId())).map(Item::getStatus).contains(ItemStatus.PROCESSED);
+    }
+
+    // Hibernate statistics are off by default, they are only collected from here on
+    private Statistics clearedStatistics() {
+        Statistics statistics = statistics();
+        statistics.clear();
+        statistics.setStatisticsEnabled(true);
+        return statistics;
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,153 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.utils.TestDataBuilder;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+
+@DataJpaTest
+class ItemRepositoryTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void testFindAllIds() {
+        Item item1 = TestDataBuilder.buildItemWithoutId(1);
+        Item item2 = TestDataBuilder.buildItemWithoutId(2);
+
+        Item savedItem1 = itemRepository.save(item1);
+        Item savedItem2 = itemRepository.save(item2);
+
+        List<Long> ids = itemRepository.findAllIds();
+
+        assertThat(ids).containsExactlyInAnyOrder(savedItem1.getId(), savedItem2.getId());
+    }
+
+    @Test
+    void testFindByEmail() {
+        Item item = TestDataBuilder.buildItemWithoutId(1);
+        itemRepository.save(item);
+
+        Optional<Item> found = itemRepository.findByEmail("item1@gmail.com");
+
+        assertThat(found).isPresent();
+        assertThat(found.get().getName()).isEqualTo("Item 1");
+    }
+
+    @Test
+    void testEmailKey_shouldBeTheNormalizedEmail() {
+        Item item = TestDataBuilder.buildItemWithoutId(1);
+        item.setEmail("Item1@Gmail.com");
+        itemRepository.save(item);
+        itemRepository.save(TestDataBuilder.buildItemWithoutId(2));
+
+        assertThat(itemRepository.existsByEmailKey("item1@gmail.com")).isTrue();
+        assertThat(itemRepository.existsByEmailKey("item3@gmail.com")).isFalse();
+        assertThat(itemRepository.findExistingEmailKeys(List.of("item1@gmail.com", "item2@gmail.com", "item3@gmail.com")))
+                .containsExactlyInAnyOrder("item1@gmail.com", "item2@gmail.com");
+    }
+
+    @Test
+    void testDuplicateEmail_OtherCase_shouldViolateUniqueIndex() {
+        itemRepository.saveAndFlush(TestDataBuilder.buildItemWithoutId(1));
+        Item duplicate = TestDataBuilder.buildItemWithoutId(1);
+        duplicate.setEmail("ITEM1@gmail.com");
+
+        assertThatThrownBy(() -> itemRepository.saveAndFlush(duplicate))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void testDuplicateEmail_shouldViolateUniqueIndex() {
+        itemRepository.saveAndFlush(TestDataBuilder.buildItemWithoutId(1));
+
+        assertThatThrownBy(() -> itemRepository.saveAndFlush(TestDataBuilder.buildItemWithoutId(1)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void testCrudOperations() {
+        Item item = TestDataBuilder.buildItemWithoutId(1);
+
+        Item saved = itemRepository.save(item);
+        assertThat(saved.getId()).isNotNull();
+
+        Optional<Item> found = itemRepository.findById(saved.getId());
+        assertThat(found).isPresent();
+
+        itemRepository.deleteById(saved.getId());
+        assertThat(itemRepository.findById(saved.getId())).isNotPresent();
+    }
+
+    @Test
+    void testUpdateStatusByIdIn() {
+        Item item1 = itemRepository.save(TestDataBuilder.buildItemWithoutId(1));
+        Item item2 = itemRepository.save(TestDataBuilder.buildItemWithoutId(2));
+        Item item3 = TestDataBuilder.buildItemWithoutId(3);
+        item3.setStatus(ItemStatus.PROCESSED);
+        item3 = itemRepository.save(item3);
+        Item item4 = itemRepository.save(TestDataBuilder.buildItemWithoutId(4));
+        // Deleted after its id was read
+        itemRepository.delete(item4);
+
+        Map<Long, Long> updated = itemRepository.updateStatusByIdIn(
+                List.of(item1.getId(), item2.getId(), item3.getId(), item4.getId()), ItemStatus.PROCESSED);
+
+        // The versions after the update
+        assertThat(updated).containsExactly(entry(item1.getId(), item1.getVersion() + 1), entry(item2.getId(), item2.getVersion() + 1));
+        assertThat(itemRepository.findById(item1.getId())).map(Item::getVersion).contains(item1.getVersion() + 1);
+        assertThat(itemRepository.findAll()).allMatch(item -> item.getStatus() == ItemStatus.PROCESSED);
+    }
+
+    @Test
+    void testFindByIdGreaterThanOrderByIdAsc() {
+        Item item1 = itemRepository.save(TestDataBuilder.buildItemWithoutId(1));
+        Item item2 = itemRepository.save(TestDataBuilder.buildItemWithoutId(2));
+        Item item3 = itemRepository.save(TestDataBuilder.buildItemWithoutId(3));
+
+        List<Item> page = itemRepository.findByIdGreaterThanOrderByIdAsc(item1.getId(), Limit.of(1));
+
+        assertThat(page).extracting(Item::getId).containsExactly(item2.getId());
+        assertThat(itemRepository.findByIdGreaterThanOrderByIdAsc(item2.getId(), Limit.of(5)))
+                .extracting(Item::getId).containsExactly(item3.getId());
+    }
+
+    @Test
+    void testFindIdsByStatusAndIdGreaterThan_shouldPageOverUnprocessedIds() {
+        Item item1 = itemRepository.save(TestDataBuilder.buildItemWithoutId(1));
+        Item item2 = TestDataBuilder.buildItemWithoutId(2);
+        item2.setStatus(ItemStatus.PROCESSED);
+        itemRepository.save(item2);
+        Item item3 = itemRepository.save(TestDataBuilder.buildItemWithoutId(3));
+        Item item4 = itemRepository.save(TestDataBuilder.buildItemWithoutId(4));
+
+        assertThat(itemRepository.findIdsByStatusAndIdGreaterThan(ItemStatus.NEW, 0L, Limit.of(2)))
+                .containsExactly(item1.getId(), item3.getId());
+        assertThat(itemRepository.findIdsByStatusAndIdGreaterThan(ItemStatus.NEW, item3.getId(), Limit.of(2)))
+                .containsExactly(item4.getId());
+        assertThat(itemRepository.countByStatus(ItemStatus.NEW)).isEqualTo(3);
+    }
+
+    @Test
+    void testFindIdsByStatusInRange_shouldStopAtTheEndOfTheRange() {
+        Item item1 = itemRepository.save(TestDataBuilder.buildItemWithoutId(1));
+        Item item2 = itemRepository.save(TestDataBuilder.buildItemWithoutId(2));
+        Item item3 = itemRepository.save(TestDataBuilder.buildItemWithoutId(3));
+
+        assertThat(itemRepository.findIdsByStatusInRange(ItemStatus.NEW, item1.getId() - 1, item2.getId(), Limit.of(5)))
+                .containsExactly(item1.getId(), item2.getId());
+        assertThat(itemRepository.findIdsByStatusInRange(ItemStatus.NEW, item1.getId(), item3.getId(), Limit.of(1)))
+                .containsExactly(item2.getId());
+    }
+}
@@ -0,0 +1,149 @@
+package com.siemens.internship.service.impl;
+
+import com.siemens.internship.controller.dto.ItemDTO;
+import com.siemens.internship.exception.VersionConflictException;
+import com.siemens.internship.service.ItemService;
+import com.siemens.internship.utils.TestDataBuilder;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Updates racing on the same row, committed for real: every write either wins with a new version or fails with a conflict
+@SpringBootTest
+class ItemServiceConcurrencyTest {
+
+    private static final int WRITERS = 16;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ExecutorService executor;
+
+    private ItemDTO item;
+
+    @BeforeEach
+    void setup() {
+        executor = Executors.newFixedThreadPool(WRITERS);
+        item = itemService.save(TestDataBuilder.buildItemDTOWithoutId(1));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        entityManagerFactory.unwrap(SessionFactory.class).getStatistics().setStatisticsEnabled(false);
+        executor.shutdownNow();
+        itemService.findAll().forEach(found -> itemService.deleteById(found.getId()));
+    }
+
+    @Test
+    void testUpdate_SameVersion_shouldLetExactlyOneWriterWin() throws Exception {
+        List<Outcome> outcomes = race(writer -> {
+            ItemDTO changes = new ItemDTO();
+            changes.setDescription("Writer " + writer);
+            changes.setVersion(item.getVersion());
+            return changes;
+        });
+
+        assertThat(outcomes).filteredOn(Outcome::updated).hasSize(1);
+        assertThat(outcomes).filteredOn(outcome -> !outcome.updated()).hasSize(WRITERS - 1);
+
+        ItemDTO current = itemService.findById(item.getId());
+        assertThat(current.getVersion()).isEqualTo(item.getVersion() + 1);
+        assertThat(current.getDescription()).isEqualTo(outcomes.stream()
+                .filter(Outcome::updated)
+                .findFirst()
+                .orElseThrow()
+                .description());
+    }
+
+    @Test
+    void testUpdate_WithoutVersion_shouldNeverLoseAnUpdate() throws Exception {
+        List<Outcome> outcomes = race(writer -> {
+            ItemDTO changes = new ItemDTO();
+            changes.setDescription("Writer " + writer);
+            return changes;
+        });
+
+        // Every successful update moved the version by exactly one, a conflicting one changed nothing
+        long updated = outcomes.stream().filter(Outcome::updated).count();
+        assertThat(updated).isPositive();
+        assertThat(itemService.findById(item.getId()).getVersion()).isEqualTo(item.getVersion() + updated);
+    }
+
+    @Test
+    void testUpdate_CachedItemWrittenByAnotherNode_shouldCompareWithTheCurrentVersion() {
+        itemService.findById(item.getId());
+        // Another node writes the row, the entity cache of this one is not told
+        jdbcTemplate.update("UPDATE item SET description = 'Other node', version = version + 1 WHERE id = ?", item.getId());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        // Off by default, only collected for the updates
+        statistics.setStatisticsEnabled(true);
+
+        ItemDTO stale = new ItemDTO();
+        stale.setDescription("Stale");
+        stale.setVersion(item.getVersion());
+        assertThrows(VersionConflictException.class, () -> itemService.update(item.getId(), stale));
+
+        ItemDTO changes = new ItemDTO();
+        changes.setName("Updated");
+        changes.setVersion(item.getVersion() + 1);
+        ItemDTO updated = itemService.update(item.getId(), changes);
+
+        assertThat(updated.getVersion()).isEqualTo(item.getVersion() + 2);
+        assertThat(updated.getDescription()).isEqualTo("Other node");
+        // One SELECT of the row per update, then only the successful one writes its UPDATE and the outbox INSERT
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(2);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+    }
+
+    private List<Outcome> race(IntFunction<ItemDTO> changes) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Outcome>> futures = new ArrayList<>();
+
+        for (int writer = 0; writer < WRITERS; writer++) {
+            ItemDTO writerChanges = changes.apply(writer);
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    return new Outcome(true, itemService.update(item.getId(), writerChanges).getDescription());
+                } catch (VersionConflictException e) {
+                    return new Outcome(false, writerChanges.getDescription());
+                }
+            }));
+        }
+        start.countDown();
+
+        List<Outcome> outcomes = new ArrayList<>();
+        for (Future<Outcome> future : futures) {
+            // A conflict fails fast, no writer waits for the others to finish
+            outcomes.add(future.get(10, TimeUnit.SECONDS));
+        }
+        return outcomes;
+    }
+
+    private record Outcome(boolean updated, String description) {
+    }
+}
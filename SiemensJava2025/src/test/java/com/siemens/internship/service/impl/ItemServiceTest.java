@@ -1,45 +1,93 @@
 package com.siemens.internship.service.impl;
 
+import com.siemens.internship.cache.EmailRegistry;
+import com.siemens.internship.cache.ItemCache;
+import com.siemens.internship.controller.dto.BatchFailureDTO;
+import com.siemens.internship.controller.dto.BatchResultDTO;
+import com.siemens.internship.controller.dto.ItemChangeDTO;
 import com.siemens.internship.controller.dto.ItemDTO;
+import com.siemens.internship.controller.dto.ItemLookupDTO;
 import com.siemens.internship.exception.EmailAlreadyExistsException;
 import com.siemens.internship.exception.ObjectNotFoundException;
+import com.siemens.internship.exception.VersionConflictException;
+import com.siemens.internship.mapper.ItemMapper;
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemChange;
+import com.siemens.internship.outbox.ItemChangeLog;
+import com.siemens.internship.processing.ItemProcessingPipeline;
+import com.siemens.internship.processing.ProcessingJob;
 import com.siemens.internship.repository.ItemRepository;
 import com.siemens.internship.utils.TestDataBuilder;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.Mockito;
-import static org.mockito.Mockito.doReturn;
+import org.mockito.Spy;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
-import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @ExtendWith(MockitoExtension.class)
 public class ItemServiceTest {
 
-    @Mock
-    private ModelMapper modelMapper;
+    @Spy
+    private ItemMapper itemMapper = new ItemMapper();
 
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private EmailRegistry emailRegistry;
+
+    @Mock
+    private ItemCache itemCache;
+
+    @Mock
+    private ItemChangeLog itemChangeLog;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ItemProcessingPipeline itemProcessingPipeline;
+
     @InjectMocks
     private ItemServiceImpl itemServiceImpl;
 
@@ -51,18 +99,65 @@ public class ItemServiceTest {
         Item item = TestDataBuilder.buildItem(1);
         ItemDTO itemDTO = TestDataBuilder.buildItemDTO(1);
 
-        when(modelMapper.map(itemDTO, Item.class)).thenReturn(item);
-        when(modelMapper.map(item, ItemDTO.class)).thenReturn(itemDTO);
-        when(itemRepository.save(item)).thenReturn(item);
+        when(itemRepository.saveAndFlush(any(Item.class))).thenReturn(item);
 
         ItemDTO returnedItemDTO = itemServiceImpl.save(itemDTO);
 
         assertNotNull(returnedItemDTO);
-        verify(itemRepository).save(itemArgumentCaptor.capture());
+        verify(itemRepository).saveAndFlush(itemArgumentCaptor.capture());
         Item capturedItem = itemArgumentCaptor.getValue();
 
         assertThat(capturedItem.getEmail()).isEqualTo(itemDTO.getEmail());
         assertThat(capturedItem.getName()).isEqualTo(itemDTO.getName());
+        verify(emailRegistry).register(itemDTO.getEmail());
+        verify(itemCache).put(returnedItemDTO);
+        verify(itemChangeLog).record(item.getId(), ItemChange.Type.CREATED, item.getVersion());
+    }
+
+    @Test
+    public void testSaveAll_shouldReportInvalidDuplicateAndExistingItems() {
+        runTransactionsInline();
+        ItemDTO existing = TestDataBuilder.buildItemDTOWithoutId(1);
+        // Taken by item1@gmail.com
+        existing.setEmail("Item1@Gmail.com");
+        ItemDTO valid = TestDataBuilder.buildItemDTOWithoutId(2);
+        ItemDTO duplicate = TestDataBuilder.buildItemDTOWithoutId(2);
+        duplicate.setEmail("ITEM2@gmail.com");
+
+        when(validator.validate(any(ItemDTO.class))).thenReturn(Set.of());
+        when(itemRepository.findExistingEmailKeys(List.of("item1@gmail.com", "item2@gmail.com")))
+                .thenReturn(List.of("item1@gmail.com"));
+
+        BatchResultDTO result = itemServiceImpl.saveAll(Arrays.asList(existing, null, valid, duplicate).iterator());
+
+        assertEquals(4, result.getReceived());
+        assertEquals(1, result.getCreated());
+        assertThat(result.getFailures()).extracting(BatchFailureDTO::getIndex).containsExactlyInAnyOrder(0, 1, 3);
+        verify(itemRepository).saveAll(anyList());
+        verify(emailRegistry).register("item2@gmail.com");
+        verify(itemChangeLog).record(any(), eq(ItemChange.Type.CREATED), any());
+    }
+
+    @Test
+    public void testSaveAll_ConstraintViolation_shouldFallBackToSingleInserts() {
+        runTransactionsInline();
+        ItemDTO itemDTO1 = TestDataBuilder.buildItemDTOWithoutId(1);
+        ItemDTO itemDTO2 = TestDataBuilder.buildItemDTOWithoutId(2);
+
+        when(validator.validate(any(ItemDTO.class))).thenReturn(Set.of());
+        when(itemRepository.findExistingEmailKeys(anyList())).thenReturn(List.of());
+        when(itemRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Item> items = invocation.getArgument(0);
+            if (items.size() > 1 || "item2@gmail.com".equals(items.get(0).getEmail())) {
+                throw new DataIntegrityViolationException("uk_item_email");
+            }
+            return items;
+        });
+
+        BatchResultDTO result = itemServiceImpl.saveAll(List.of(itemDTO1, itemDTO2).iterator());
+
+        assertEquals(1, result.getCreated());
+        assertThat(result.getFailures()).extracting(BatchFailureDTO::getIndex).containsExactly(1);
     }
 
     @Test
@@ -73,53 +168,126 @@ public class ItemServiceTest {
         ItemDTO itemDTO2 = TestDataBuilder.buildItemDTO(2);
 
         when(itemRepository.findAll()).thenReturn(List.of(item1, item2));
-        when(modelMapper.map(item1, ItemDTO.class)).thenReturn(itemDTO1);
-        when(modelMapper.map(item2, ItemDTO.class)).thenReturn(itemDTO2);
 
         List<ItemDTO> itemDTOList = itemServiceImpl.findAll();
 
         assertEquals(2, itemDTOList.size());
-        assertTrue(itemDTOList.containsAll(List.of(itemDTO1, itemDTO2)));
+        assertThat(itemDTOList).usingRecursiveFieldByFieldElementComparator().containsExactly(itemDTO1, itemDTO2);
+    }
+
+    @Test
+    public void testFindPage_shouldStartAfterLastId() {
+        Item item2 = TestDataBuilder.buildItem(2);
+        ItemDTO itemDTO2 = TestDataBuilder.buildItemDTO(2);
+
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(10))).thenReturn(List.of(item2));
+
+        List<ItemDTO> page = itemServiceImpl.findPage(1L, 10);
+
+        assertThat(page).usingRecursiveFieldByFieldElementComparator().containsExactly(itemDTO2);
+    }
+
+    @Test
+    public void testFindPage_shouldRejectInvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> itemServiceImpl.findPage(null, 0));
+    }
+
+    @Test
+    public void testStreamAll_shouldDetachEveryItem() {
+        Item item1 = TestDataBuilder.buildItem(1);
+        Item item2 = TestDataBuilder.buildItem(2);
+        ItemDTO itemDTO1 = TestDataBuilder.buildItemDTO(1);
+        ItemDTO itemDTO2 = TestDataBuilder.buildItemDTO(2);
+
+        when(itemRepository.streamAll()).thenReturn(Stream.of(item1, item2));
+
+        List<ItemDTO> streamed = new ArrayList<>();
+        itemServiceImpl.streamAll(streamed::add);
+
+        assertThat(streamed).usingRecursiveFieldByFieldElementComparator().containsExactly(itemDTO1, itemDTO2);
+        verify(entityManager).detach(item1);
+        verify(entityManager).detach(item2);
     }
 
     @Test
     public void findById_shouldReturnRequestedItem() {
-        Item item = TestDataBuilder.buildItem(1);
         ItemDTO expectedItem = TestDataBuilder.buildItemDTO(1);
 
-        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
-        when(modelMapper.map(item, ItemDTO.class)).thenReturn(expectedItem);
+        when(itemCache.findById(1L)).thenReturn(Optional.of(TestDataBuilder.buildItemDTO(1)));
 
-        ItemDTO returnedItemDTO = itemServiceImpl.findById(item.getId());
+        ItemDTO returnedItemDTO = itemServiceImpl.findById(1L);
 
-        verify(itemRepository).findById(item.getId());
-        assertEquals(expectedItem, returnedItemDTO);
+        verify(itemCache).findById(1L);
+        assertThat(returnedItemDTO).usingRecursiveComparison().isEqualTo(expectedItem);
     }
 
     @Test
     public void testFindById_shouldThrowNotFoundException() {
-        when(itemRepository.findById(1L)).thenReturn(Optional.empty());
+        when(itemCache.findById(1L)).thenReturn(Optional.empty());
 
         assertThrows(ObjectNotFoundException.class, () -> itemServiceImpl.findById(1L));
     }
 
+    @Test
+    public void testFindAllById_shouldKeepTheRequestedOrderAndReportMissingIds() {
+        ItemDTO itemDTO1 = TestDataBuilder.buildItemDTO(1);
+        ItemDTO itemDTO2 = TestDataBuilder.buildItemDTO(2);
+        ItemDTO itemDTO3 = TestDataBuilder.buildItemDTO(3);
+        itemDTO2.setId(2L);
+        itemDTO3.setId(3L);
+        Item item3 = TestDataBuilder.buildItem(3);
+        item3.setId(3L);
+
+        // 2 is cached, 1 and 3 come from the database in another order, 4 does not exist
+        when(itemCache.findAllPresent(Set.of(3L, 1L, 4L, 2L))).thenReturn(new HashMap<>(Map.of(2L, itemDTO2)));
+        when(itemRepository.findAllById(List.of(3L, 1L, 4L))).thenReturn(List.of(TestDataBuilder.buildItem(1), item3));
+
+        ItemLookupDTO lookup = itemServiceImpl.findAllById(List.of(3L, 1L, 4L, 2L, 1L));
+
+        assertThat(lookup.getItems()).usingRecursiveFieldByFieldElementComparator().containsExactly(itemDTO3, itemDTO1, itemDTO2);
+        assertThat(lookup.getMissingIds()).containsExactly(4L);
+        verify(itemMapper).toItemDTOs(anyList());
+    }
+
+    @Test
+    public void testFindAllById_shouldQueryTheUncachedIdsInChunks() {
+        List<Long> ids = LongStream.rangeClosed(1, 1200).boxed().toList();
+
+        when(itemCache.findAllPresent(Set.copyOf(ids))).thenReturn(new HashMap<>());
+        when(itemRepository.findAllById(anyList())).thenReturn(List.of());
+
+        ItemLookupDTO lookup = itemServiceImpl.findAllById(ids);
+
+        assertThat(lookup.getItems()).isEmpty();
+        assertThat(lookup.getMissingIds()).isEqualTo(ids);
+        verify(itemRepository).findAllById(ids.subList(0, 500));
+        verify(itemRepository).findAllById(ids.subList(500, 1000));
+        verify(itemRepository).findAllById(ids.subList(1000, 1200));
+        verify(itemRepository, times(3)).findAllById(anyList());
+    }
+
+    @Test
+    public void testFindAllById_shouldRejectTooManyOrNullIds() {
+        assertThrows(IllegalArgumentException.class, () -> itemServiceImpl.findAllById(Collections.nCopies(10_001, 1L)));
+        assertThrows(IllegalArgumentException.class, () -> itemServiceImpl.findAllById(Arrays.asList(1L, null)));
+        verify(itemRepository, never()).findAllById(anyList());
+    }
+
     @Test
     public void findByEmail_shouldReturnRequestedItem() {
-        Item item = TestDataBuilder.buildItem(1);
         ItemDTO expectedItem = TestDataBuilder.buildItemDTO(1);
 
-        when(itemRepository.findByEmail(item.getEmail())).thenReturn(Optional.of(item));
-        when(modelMapper.map(item, ItemDTO.class)).thenReturn(expectedItem);
+        when(itemCache.findByEmail("item1@gmail.com")).thenReturn(Optional.of(TestDataBuilder.buildItemDTO(1)));
 
-        ItemDTO returnedItemDTO = itemServiceImpl.findByEmail(item.getEmail());
+        ItemDTO returnedItemDTO = itemServiceImpl.findByEmail("item1@gmail.com");
 
-        verify(itemRepository).findByEmail(item.getEmail());
-        assertEquals(expectedItem, returnedItemDTO);
+        verify(itemCache).findByEmail("item1@gmail.com");
+        assertThat(returnedItemDTO).usingRecursiveComparison().isEqualTo(expectedItem);
     }
 
     @Test
     public void testFindByEmail_shouldThrowNotFoundException() {
-        when(itemRepository.findByEmail("item1@gmal.com")).thenReturn(Optional.empty());
+        when(itemCache.findByEmail("item1@gmal.com")).thenReturn(Optional.empty());
 
         assertThrows(ObjectNotFoundException.class, () -> itemServiceImpl.findByEmail("item1@gmal.com"));
     }
@@ -128,17 +296,20 @@ public class ItemServiceTest {
     public void testDeleteItem() {
         long itemId = 1L;
         Item item = TestDataBuilder.buildItem(1);
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRepository.findCurrentById(itemId)).thenReturn(Optional.of(item));
 
         itemServiceImpl.deleteById(itemId);
 
         verify(itemRepository).delete(item);
+        verify(emailRegistry).unregister(item.getEmail());
+        verify(itemCache).evict(itemId, item.getEmail());
+        verify(itemChangeLog).record(itemId, ItemChange.Type.DELETED, item.getVersion());
     }
 
     @Test
     public void testDeleteItem_shouldThrowNotFoundException() {
         Long itemId = 1L;
-        when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
+        when(itemRepository.findCurrentById(itemId)).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(ObjectNotFoundException.class, () -> {
             itemServiceImpl.deleteById(itemId);
@@ -147,23 +318,67 @@ public class ItemServiceTest {
         assertEquals("Item with id: " + itemId + " not found!", exception.getMessage());
     }
 
+    @Test
+    public void testFindVersion_shouldNeitherMapNorCopy() {
+        when(itemCache.findVersion(1L)).thenReturn(Optional.of(3L));
+
+        assertEquals(3L, itemServiceImpl.findVersion(1L));
+        verify(itemCache, never()).findById(any());
+        verify(itemMapper, never()).toItemDTO(any());
+    }
+
+    @Test
+    public void testFindVersion_ItemNotFound() {
+        when(itemCache.findVersion(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ObjectNotFoundException.class, () -> itemServiceImpl.findVersion(1L));
+    }
+
+    @Test
+    public void testFindChanges_shouldMapTheOutboxRows() {
+        Instant changedAt = Instant.now();
+        when(itemChangeLog.findAfter(5L, 10)).thenReturn(List.of(
+                new ItemChange(56L, 6L, 1L, ItemChange.Type.UPDATED, 2L, changedAt, null),
+                new ItemChange(3L, 7L, 2L, ItemChange.Type.PROCESSED, 1L, changedAt, null)));
+
+        List<ItemChangeDTO> changes = itemServiceImpl.findChanges(5L, 10);
+
+        assertThat(changes).usingRecursiveFieldByFieldElementComparator().containsExactly(
+                new ItemChangeDTO(6L, 1L, ItemChange.Type.UPDATED, 2L, changedAt),
+                new ItemChangeDTO(7L, 2L, ItemChange.Type.PROCESSED, 1L, changedAt));
+    }
+
+    @Test
+    public void testFindChanges_shouldRejectInvalidLimit() {
+        assertThrows(IllegalArgumentException.class, () -> itemServiceImpl.findChanges(0L, 0));
+        verify(itemChangeLog, never()).findAfter(0L, 0);
+    }
+
+    @Test
+    public void testFindAllVersion_shouldBeTheLastOutboxPosition() {
+        when(itemChangeLog.lastPosition()).thenReturn(42L);
+
+        assertEquals("42", itemServiceImpl.findAllVersion());
+    }
+
     @Test
     public void testUpdate_ItemExists_SameEmail() {
         ItemDTO itemDTO = TestDataBuilder.buildItemDTO(1);
-        Item savedItem = TestDataBuilder.buildItem(1);
-
-        ItemServiceImpl spyService = Mockito.spy(itemServiceImpl);
-        doReturn(itemDTO).when(spyService).findById(itemDTO.getId());
+        itemDTO.setDescription("Updated");
+        Item item = TestDataBuilder.buildItem(1);
+        item.setVersion(3L);
 
-        when(modelMapper.map(itemDTO, Item.class)).thenReturn(savedItem);
-        when(modelMapper.map(savedItem, ItemDTO.class)).thenReturn(itemDTO);
-        when(itemRepository.save(savedItem)).thenReturn(savedItem);
+        when(itemRepository.findCurrentById(item.getId())).thenReturn(Optional.of(item));
+        when(itemRepository.saveAndFlush(item)).thenReturn(item);
 
-        ItemDTO updatedItemDTO = spyService.update(itemDTO.getId(), itemDTO);
+        ItemDTO updatedItemDTO = itemServiceImpl.update(itemDTO.getId(), itemDTO);
 
         assertNotNull(updatedItemDTO);
+        assertEquals("Updated", updatedItemDTO.getDescription());
         assertEquals(itemDTO.getEmail(), updatedItemDTO.getEmail());
-        verify(itemRepository).save(savedItem);
+        verify(emailRegistry, never()).unregister(any());
+        verify(itemCache).evict(item.getId(), "item1@gmail.com");
+        verify(itemChangeLog).record(item.getId(), ItemChange.Type.UPDATED, 3L);
     }
 
     @Test
@@ -172,29 +387,97 @@ public class ItemServiceTest {
         ItemDTO incomingDTO = TestDataBuilder.buildItemDTO(1);
         incomingDTO.setEmail("email2@example.com");
 
-        Item conflictingItem = TestDataBuilder.buildItem(2);
-        conflictingItem.setEmail("email2@example.com");
-        ItemDTO conflictingItemDTO = TestDataBuilder.buildItemDTO(2);
-        conflictingItemDTO.setEmail("email2@example.com");
-
-        when(itemRepository.findById(existingItem.getId())).thenReturn(Optional.of(existingItem));
-        when(itemRepository.findByEmail("email2@example.com")).thenReturn(Optional.of(conflictingItem));
-        when(modelMapper.map(conflictingItem, ItemDTO.class)).thenReturn(conflictingItemDTO);
-        when(modelMapper.map(existingItem, ItemDTO.class)).thenReturn(
-                TestDataBuilder.buildItemDTO(1)
-        );
+        when(itemRepository.findCurrentById(existingItem.getId())).thenReturn(Optional.of(existingItem));
+        when(emailRegistry.contains("email2@example.com")).thenReturn(true);
 
         EmailAlreadyExistsException exception = assertThrows(EmailAlreadyExistsException.class,
                 () -> itemServiceImpl.update(existingItem.getId(), incomingDTO));
 
         assertEquals("Item with email: email2@example.com already exists!", exception.getMessage());
+        verify(itemRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    public void testUpdate_ItemExists_DifferentEmail_ShouldUpdateRegistry() {
+        Item existingItem = TestDataBuilder.buildItem(1);
+        ItemDTO incomingDTO = TestDataBuilder.buildItemDTO(1);
+        incomingDTO.setEmail("email2@example.com");
+
+        when(itemRepository.findCurrentById(existingItem.getId())).thenReturn(Optional.of(existingItem));
+        when(emailRegistry.contains("email2@example.com")).thenReturn(false);
+        when(itemRepository.saveAndFlush(existingItem)).thenReturn(existingItem);
+
+        ItemDTO updatedItemDTO = itemServiceImpl.update(existingItem.getId(), incomingDTO);
+
+        assertEquals("email2@example.com", updatedItemDTO.getEmail());
+        verify(emailRegistry).unregister("item1@gmail.com");
+        verify(emailRegistry).register("email2@example.com");
+        verify(itemCache).evict(existingItem.getId(), "item1@gmail.com");
+        verify(itemCache).put(updatedItemDTO);
+    }
+
+    @Test
+    public void testUpdate_PartialChanges_ShouldKeepTheOtherFields() {
+        Item existingItem = TestDataBuilder.buildItem(1);
+        ItemDTO changes = new ItemDTO();
+        changes.setStatus("PROCESSED");
+
+        when(itemRepository.findCurrentById(existingItem.getId())).thenReturn(Optional.of(existingItem));
+        when(itemRepository.saveAndFlush(existingItem)).thenReturn(existingItem);
+
+        ItemDTO updatedItemDTO = itemServiceImpl.update(existingItem.getId(), changes);
+
+        assertEquals("PROCESSED", updatedItemDTO.getStatus());
+        assertEquals("Item 1", updatedItemDTO.getName());
+        assertEquals("item1@gmail.com", updatedItemDTO.getEmail());
+    }
+
+    @Test
+    public void testUpdate_StaleVersion_ShouldThrowVersionConflictException() {
+        Item existingItem = TestDataBuilder.buildItem(1);
+        existingItem.setVersion(4L);
+        ItemDTO incomingDTO = TestDataBuilder.buildItemDTO(1);
+        incomingDTO.setVersion(3L);
+
+        when(itemRepository.findCurrentById(existingItem.getId())).thenReturn(Optional.of(existingItem));
+
+        VersionConflictException exception = assertThrows(VersionConflictException.class,
+                () -> itemServiceImpl.update(existingItem.getId(), incomingDTO));
+
+        assertEquals("Item with id: 1 was modified, its current version is 4!", exception.getMessage());
+        verify(itemRepository, never()).saveAndFlush(any());
+        verify(itemCache, never()).put(any());
+    }
+
+    @Test
+    public void testUpdate_ConcurrentWrite_ShouldThrowVersionConflictException() {
+        Item existingItem = TestDataBuilder.buildItem(1);
+
+        when(itemRepository.findCurrentById(existingItem.getId())).thenReturn(Optional.of(existingItem));
+        when(itemRepository.saveAndFlush(existingItem))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Item.class, existingItem.getId()));
+
+        assertThrows(VersionConflictException.class,
+                () -> itemServiceImpl.update(existingItem.getId(), TestDataBuilder.buildItemDTO(1)));
+        verify(itemCache, never()).put(any());
+    }
+
+    @Test
+    public void testSave_DuplicateEmail_ShouldThrowEmailAlreadyExistsException() {
+        ItemDTO itemDTO = TestDataBuilder.buildItemDTO(1);
+
+        when(itemRepository.saveAndFlush(any(Item.class))).thenThrow(new DataIntegrityViolationException("uk_item_email"));
+
+        assertThrows(EmailAlreadyExistsException.class, () -> itemServiceImpl.save(itemDTO));
+        verify(emailRegistry, never()).register(any());
+        verify(itemChangeLog, never()).record(any(), any(), any());
     }
 
     @Test
     public void testUpdate_ItemNotFound() {
         ItemDTO itemDTO = TestDataBuilder.buildItemDTO(1);
 
-        when(itemRepository.findById(itemDTO.getId())).thenReturn(Optional.empty());
+        when(itemRepository.findCurrentById(itemDTO.getId())).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(ObjectNotFoundException.class, () -> {
             itemServiceImpl.update(itemDTO.getId(), itemDTO);
@@ -204,40 +487,28 @@ public class ItemServiceTest {
     }
 
     @Test
-    void testProcessItemsAsync() throws Exception {
-        Executor executorReal = Executors.newFixedThreadPool(4);
-        ReflectionTestUtils.setField(itemServiceImpl, "executor", executorReal);
+    void testProcessItemsAsync_shouldRunThePipeline() throws Exception {
+        ProcessingJob job = new ProcessingJob();
+        when(itemProcessingPipeline.run(job)).thenReturn(job);
 
-        List<Long> ids = List.of(1L, 2L, 3L);
-
-        Item item1 = TestDataBuilder.buildItem(1);
-        Item item2 = TestDataBuilder.buildItem(2);
-        Item item3 = TestDataBuilder.buildItem(3);
-        item3.setStatus("PROCESSED");
-
-        ItemDTO itemDTO1 = TestDataBuilder.buildItemDTO(1);
-        ItemDTO itemDTO2 = TestDataBuilder.buildItemDTO(2);
-        ItemDTO itemDTO3 = TestDataBuilder.buildItemDTO(3);
-        itemDTO3.setStatus("PROCESSED");
-
-        when(itemRepository.findAllIds()).thenReturn(ids);
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(item1));
-        when(itemRepository.findById(2L)).thenReturn(Optional.of(item2));
-        when(itemRepository.findById(3L)).thenReturn(Optional.of(item3));
-
-        when(modelMapper.map(item1, ItemDTO.class)).thenReturn(itemDTO1);
-        when(modelMapper.map(item2, ItemDTO.class)).thenReturn(itemDTO2);
-        when(modelMapper.map(item3, ItemDTO.class)).thenReturn(itemDTO3);
-
-        CompletableFuture<List<ItemDTO>> future = itemServiceImpl.processItemsAsync();
-        List<ItemDTO> processedItems = future.get();
+        assertThat(itemServiceImpl.processItemsAsync(job).get()).isSameAs(job);
+        verify(itemProcessingPipeline).run(job);
+    }
 
-        assertEquals(2, processedItems.size());
-        assertTrue(processedItems.stream().allMatch(item -> "PROCESSED".equals(item.getStatus())));
+    @Test
+    void testRetryFailedItemsAsync_shouldRetryTheDeadLetters() throws Exception {
+        ProcessingJob job = new ProcessingJob();
+        when(itemProcessingPipeline.retryFailed(job)).thenReturn(job);
 
-        Mockito.verify(itemRepository, times(2)).save(itemArgumentCaptor.capture());
-        List<Item> savedItems = itemArgumentCaptor.getAllValues();
+        assertThat(itemServiceImpl.retryFailedItemsAsync(job).get()).isSameAs(job);
+        verify(itemProcessingPipeline).retryFailed(job);
+    }
 
-        assertEquals(2, savedItems.size());
+    private void runTransactionsInline() {
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
     }
 }
@@ -2,6 +2,7 @@ package com.siemens.internship.utils;
 
 import com.siemens.internship.controller.dto.ItemDTO;
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
 import lombok.NoArgsConstructor;
 
 @NoArgsConstructor
@@ -31,7 +32,7 @@ public class TestDataBuilder {
                 .id(1L)
                 .name("Item " + number)
                 .description("Description " + number)
-                .status("NEW")
+                .status(ItemStatus.NEW)
                 .email("item" + number + "@gmail.com")
                 .build();
     }
@@ -40,7 +41,7 @@ public class TestDataBuilder {
         return Item.builder()
                 .name("Item " + number)
                 .description("Description " + number)
-                .status("NEW")
+                .status(ItemStatus.NEW)
                 .email("item" + number + "@gmail.com")
                 .build();
     }